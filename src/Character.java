@@ -1,8 +1,6 @@
 import processing.core.PApplet;
 import processing.core.PVector;
 
-import java.util.ArrayList;
-
 import static processing.core.PApplet.*;
 
 public class Character extends ObjGameGeneric {
@@ -20,6 +18,11 @@ public class Character extends ObjGameGeneric {
     private int arriveRadius; // Arrival radius for this character - when within such distance to target slow to stop.
     private int awareRadius; // Radius of awareness of this character for enacting behaviour.
 
+    // Sums over the neighbours visited while flocking (i.e., separation, alignment and cohesion), re-used between frames.
+    private final PVector flockSepSum = new PVector(), flockAliSum = new PVector(), flockCohSum = new PVector();
+    private int flockSepCount, flockNeighbourCount;
+    private final MapCollisionLattice.NearbyObjectAction flockAction = this::addToFlock; // Created once, not per query.
+
 
     // ########################################################################
     // Character Constructors:
@@ -89,16 +92,17 @@ public class Character extends ObjGameGeneric {
         if (!this.isOnScreen()) return; // Objects off the screen should not show details - we will not see them.
 
         // Display the speed, co-ordinates, and map grid position of the ship.
-        int[] mapGridPos = gameState.getMap().getMapGridCoordAtPos((int) this.getPosX(), (int) this.getPosY());
+        int mapGridCol = gameState.getMap().tileColFloor(this.getPosX());
+        int mapGridRow = gameState.getMap().tileRowFloor(this.getPosY());
         Game.sketch.fill(GameConfig.TITLE_TEXT_COLOR);
         Game.sketch.textSize((float) GameConfig.TITLE_TEXT_SIZE / 2);
 
         Game.sketch.textAlign(CENTER);
         Game.sketch.text("Speed: " + this.getVel().mag(), this.getPosX(), this.getPosY() - 50);
         Game.sketch.text("PosX: " + this.getPosX() + ", PosY: " + this.getPosY(), this.getPosX(), this.getPosY() - 40);
-        Game.sketch.text("MapGridCol: " + mapGridPos[0] + ", MapGridRow: " + mapGridPos[1], this.getPosX(), this.getPosY() - 30);
+        Game.sketch.text("MapGridCol: " + mapGridCol + ", MapGridRow: " + mapGridRow, this.getPosX(), this.getPosY() - 30);
 
-        GameConfig.Terrain terrainAtMouse = gameState.getMap().getTerrainAtPos((int) this.getPosX(), (int) this.getPosY());
+        GameConfig.Terrain terrainAtMouse = gameState.getMap().getTerrainAtPos(this.getPosX(), this.getPosY());
         Game.sketch.text(String.valueOf(terrainAtMouse), this.getPosX(), this.getPosY() - 20);
 
     }
@@ -108,14 +112,24 @@ public class Character extends ObjGameGeneric {
     // Character Movement/Steering Methods:
     // ########################################################################
 
-    PVector flock(ArrayList<? extends ObjGameGeneric> targets) {
+    PVector flock(int kindMask) {
 
-        // Flock - Apply alignment, cohesion, and separation for group behaviour.
+        // Flock - Apply alignment, cohesion, and separation for group behaviour, with nearby characters of the given kinds.
+
+        // Visit the objects within flocking distance in place in the collision lattice, summing what each behaviour needs in
+        // a single pass (the separation distance is the smaller, so those neighbours are among them).
+        this.flockSepSum.set(0, 0);
+        this.flockAliSum.set(0, 0);
+        this.flockCohSum.set(0, 0);
+        this.flockSepCount = 0;
+        this.flockNeighbourCount = 0;
+        float flockDist = this.getDiameter() * GameConfig.CHAR_FLOCK_MAX_MULT;
+        gameState.getCollisionLattice().queryRadius(this.getPosX(), this.getPosY(), flockDist, kindMask, this.flockAction);
 
         // Apply each of the three flocking behaviours.
-        PVector separateForce = this.separate(targets);
-        PVector alignForce = this.align(targets);
-        PVector cohesionForce = this.cohesion(targets);
+        PVector separateForce = this.separate();
+        PVector alignForce = this.align();
+        PVector cohesionForce = this.cohesion();
 
         // Weighting of these behaviours.
         separateForce.mult(GameConfig.CHAR_FLOCK_SEP_WEIGHT);
@@ -132,32 +146,36 @@ public class Character extends ObjGameGeneric {
 
     }
 
-    PVector align(ArrayList<? extends ObjGameGeneric> targets) {
-
-        // Alignment (or Copy) - Steer in the same direction as neighbours.
-
-        float desiredDist = this.getDiameter() * GameConfig.CHAR_FLOCK_MAX_MULT;
+    private void addToFlock(ObjGameGeneric target) {
 
-        PVector sum = new PVector(0, 0);
-        int count = 0;
+        float d = PVector.dist(this.getPos(), target.getPos());
+        if (d <= 0) return; // Ignore this character itself (and any target exactly on top of it).
 
-        for (ObjGameGeneric currTarget : targets) {
-
-            float d = PVector.dist(this.getPos(), currTarget.getPos());
+        // Separation - Sum the direction away from each target too close, weighted by how close the target is.
+        if (d < this.getDiameter() * GameConfig.CHAR_FLOCK_MIN_MULT) {
+            float weight = 1 / (d * d); // Normalise the difference (divide by d), then divide by d again.
+            this.flockSepSum.add((this.getPosX() - target.getPosX()) * weight, (this.getPosY() - target.getPosY()) * weight);
+            this.flockSepCount += 1;
+        }
 
-            if (d > 0 && d < desiredDist) {
+        // Alignment and Cohesion - Sum the velocity and position of each target within the flocking distance.
+        if (d < this.getDiameter() * GameConfig.CHAR_FLOCK_MAX_MULT) {
+            this.flockAliSum.add(target.getVel());
+            this.flockCohSum.add(target.getPos());
+            this.flockNeighbourCount += 1; // For an average, keep track of number of boids within the distance.
+        }
 
-                sum.add(currTarget.getVel());
-                count += 1; // For an average, keep track of number of boids within the distance.
+    }
 
-            }
+    private PVector align() {
 
-        }
+        // Alignment (or Copy) - Steer in the same direction as neighbours.
 
-        // If there is at least one target not close enough, then apply alignment.
-        if (count > 0) {
+        // If there is at least one target close enough, then apply alignment.
+        if (this.flockNeighbourCount > 0) {
 
-            sum.div(count);
+            PVector sum = this.flockAliSum.copy();
+            sum.div(this.flockNeighbourCount);
             sum.normalize();
             sum.mult(this.getMaxSpeed());
 
@@ -171,32 +189,15 @@ public class Character extends ObjGameGeneric {
 
     }
 
-    PVector cohesion(ArrayList<? extends ObjGameGeneric> targets) {
+    private PVector cohesion() {
 
         // Cohesion (or Center) - Steer towards center of neighbours (stay with the group).
 
-        float desiredDist = this.getDiameter() * GameConfig.CHAR_FLOCK_MAX_MULT;
-
-        PVector sum = new PVector(0, 0);
-        int count = 0;
-
-        for (ObjGameGeneric currTarget : targets) {
-
-            float d = PVector.dist(this.getPos(), currTarget.getPos());
-
-            if (d > 0 && d < desiredDist) {
-
-                sum.add(currTarget.getPos());
-                count += 1; // For an average, keep track of number of boids within the distance.
-
-            }
-
-        }
-
         // If there is at least one target within the distance, then apply cohesion.
-        if (count > 0) {
+        if (this.flockNeighbourCount > 0) {
 
-            sum.div(count);
+            PVector sum = this.flockCohSum.copy();
+            sum.div(this.flockNeighbourCount);
             return this.seek(sum, GameConfig.SEEK_TYPE.NORM); // Target sought is average location of neighbours.
 
         }
@@ -206,37 +207,15 @@ public class Character extends ObjGameGeneric {
 
     }
 
-    PVector separate(ArrayList<? extends ObjGameGeneric> targets) {
+    private PVector separate() {
 
         // Separation (or Avoidance) - Steer to avoid colliding with nearby neighbours.
 
-        // Desired separation is based on the size of this character.
-        float desiredSeparation = this.getDiameter() * GameConfig.CHAR_FLOCK_MIN_MULT;
-
-        PVector sum = new PVector();
-        int count = 0;
-
-        for (ObjGameGeneric currTarget : targets) { // Keep track of how many of the targets are too close.
-
-            float d = PVector.dist(this.getPos(), currTarget.getPos());
-
-            if (d > 0 && d < desiredSeparation) {
-
-                PVector diff = PVector.sub(this.getPos(), currTarget.getPos());
-                diff.normalize();
-                diff.div(d); // The closer the target to separate from, the greater the separation force, and vice versa.
-
-                sum.add(diff);
-                count += 1;
-
-            }
-
-        }
-
         // If there is at least one target too close, then apply separation.
-        if (count > 0) {
+        if (this.flockSepCount > 0) {
 
-            sum.div(count);
+            PVector sum = this.flockSepSum.copy();
+            sum.div(this.flockSepCount);
             sum.normalize();
             sum.mult(this.getMaxSpeed());
 
@@ -299,6 +278,24 @@ public class Character extends ObjGameGeneric {
 
     }
 
+    PVector followFlowField() {
+
+        // Head along the shared flow field towards the player, around any land in the way.
+        // Returns null where there is no flow (e.g., out of the map, on the player's tile, or unable to reach the player).
+        Map map = gameState.getMap();
+        MapFlowField flowField = map.getFlowField();
+        int col = map.tileColFloor(this.getPosX());
+        int row = map.tileRowFloor(this.getPosY());
+        if (!flowField.hasFlow(col, row)) return null;
+
+        PVector force = new PVector(flowField.getFlowX(col, row), flowField.getFlowY(col, row));
+        force.mult(this.getMaxSpeed());
+        force.sub(this.getVel());
+
+        return force;
+
+    }
+
     PVector evade(ObjGameGeneric target) {
 
         PVector pursuit = this.pursue(target);
@@ -333,48 +330,18 @@ public class Character extends ObjGameGeneric {
     private void confineMovement() {
 
         if (!this.isInMap()) return; // Objects out the map get a free-pass at following the rules, so they become relevant and do not get stuck.
+        if (this.getMaxSpeed() <= 0) return; // Stationary characters (e.g., forts) never move into terrain they cannot enter.
 
         // Confine such that cannot hit land or water - depending on character type!
         // If land character, need to restrict from entering water, and vice versa.
         boolean restrictFromLand = !this.charType.equals(GameConfig.CharType.LAND);
 
-        if (abs(this.getVelX()) > abs(this.getVelY())) { // Crude resolution of player being able to move diagonally.
-
-            float blockX;
-
-            if (this.getVelX() < 0) { // Collision left of character with wall.
-                blockX = gameState.getMap().collidesXLeft(this, restrictFromLand);
-                if (blockX != -1) {
-                    this.setPosX(blockX);
-                    this.setVel(this.getVel().mult(-1)); // Will work for most characters - player and flagship excluded.
-                }
-            } else if (this.getVelX() > 0) { // Collision right of character with wall.
-                blockX = gameState.getMap().collidesXRight(this, restrictFromLand);
-                if (blockX != -1) {
-                    this.setPosX(blockX);
-                    this.setVel(this.getVel().mult(-1)); // Will work for most characters - player and flagship excluded.
-                }
-            }
-
-        } else {
-
-            float blockY;
-
-            if (this.getVelY() < 0) { // Collision up of character with wall.
-                blockY = gameState.getMap().collidesYUp(this, restrictFromLand);
-                if (blockY != -1) {
-                    this.setPosY(blockY);
-                    this.setVel(this.getVel().mult(-1)); // Will work for most characters - player and flagship excluded.
-                }
-            } else if (this.getVelY() > 0) { // Collision down of character with wall.
-                blockY = gameState.getMap().collidesYDown(this, restrictFromLand);
-                if (blockY != -1) {
-                    this.setPosY(blockY);
-                    this.setVel(this.getVel().mult(-1)); // Will work for most characters - player and flagship excluded.
-                }
-            }
+        // Push the character out of any restricted tiles, then bounce off them on each axis it was pushed back along.
+        float prevX = this.getPosX(), prevY = this.getPosY();
+        if (!gameState.getMap().resolveTerrainCollision(this, restrictFromLand)) return;
 
-        }
+        if ((this.getPosX() - prevX) * this.getVelX() < 0) this.setVelX(-this.getVelX());
+        if ((this.getPosY() - prevY) * this.getVelY() < 0) this.setVelY(-this.getVelY());
 
     }
 
@@ -383,62 +350,25 @@ public class Character extends ObjGameGeneric {
         if (!this.isInMap()) return; // Objects out the map get a free-pass at following the rules, so they become relevant and do not get stuck.
         if (this.getVel().mag() <= 0.001) return; // No need to enact turning to avoid terrain on stationary abjects.
 
-        // Determine type of terrain this character is to avoid.
-        GameConfig.Terrain terrainToAvoid;
-        if (this.charType == GameConfig.CharType.LAND) terrainToAvoid = GameConfig.Terrain.SHALLOW_WATER;
-        else terrainToAvoid = GameConfig.Terrain.SAND;
-
-        // Cast a ray out in front of the character to determine if heading towards land.
-        PVector straightRay = this.getVel().copy();
-        int numHitsStraight = this.samplesAlongRayTerrainHit(terrainToAvoid, straightRay,
-                GameConfig.CHAR_AVOID_TER_NUM_SAMPLES / 4); // NOTE: Less samples - simply need to discern if turning.
-
-        // If there is terrain to avoid along the ray, then decide which direction to move in (left or right).
-        if (numHitsStraight > 0) {
-
-            float theta = GameConfig.CHAR_AVOID_TER_RAY_ANG;
-
-            // Cast a ray theta degrees to the left and right of the ship and determine extent of terrain to dodge in either direction.
-
-            PVector rightRay = new PVector();
-            rightRay.x = (straightRay.x * cos(theta)) - (straightRay.y * sin(theta));
-            rightRay.y = (straightRay.x * sin(theta)) + (straightRay.y * cos(theta));
-            int numHitsR = this.samplesAlongRayTerrainHit(terrainToAvoid, rightRay, GameConfig.CHAR_AVOID_TER_NUM_SAMPLES);
-
-            PVector leftRay = this.getAccel().copy();
-            leftRay.x = (straightRay.x * cos(-theta)) - (straightRay.y * sin(-theta));
-            leftRay.y = (straightRay.x * sin(-theta)) + (straightRay.y * cos(-theta));
-            int numHitsL = this.samplesAlongRayTerrainHit(terrainToAvoid, leftRay, GameConfig.CHAR_AVOID_TER_NUM_SAMPLES);
-
-            // If there is more terrain to dodge on the left than the right, then turn towards the right, and vice versa.
-            if (numHitsL >= numHitsR) this.getVel().rotate(GameConfig.CHAR_AVOID_TER_TURN_ANG);
-            else this.getVel().rotate(-GameConfig.CHAR_AVOID_TER_TURN_ANG);
-
-        }
-
-    }
-
-    private int samplesAlongRayTerrainHit(GameConfig.Terrain terrainToAvoid, PVector ray, int numSamples) {
-
-        int terrainHitCnt = 0;
-
-        // For the given ray, take samples along the cast ray to determine if any of the terrain to dodge is along the ray.
-        for (int i = 0; i < numSamples; i++) {
-
-            int rayOffset = i * ((int) (this.getAwareRadius() * GameConfig.CHAR_AVOID_TER_AWARE_MULT) / numSamples);
-
-            // Create position to check terrain of using the ray and sample number.
-            PVector toAddToPos = ray.copy().setMag(rayOffset);
-            PVector posToCheck = this.getPos().copy().add(toAddToPos);
-            GameConfig.Terrain terrainAtPos = gameState.getMap().getTerrainAtPos((int) posToCheck.x, (int) posToCheck.y);
-
-            // Count terrain to dodge if that terrain exists at the sample point in the map.
-            if (terrainAtPos != null && terrainAtPos == terrainToAvoid) terrainHitCnt += 1;
-
-        }
-
-        // Return count of how many terrain tiles there are to dodge along the cast ray for the given number of samples.
-        return terrainHitCnt;
+        // Determine type of terrain this character is to avoid; land characters avoid water, and vice versa.
+        boolean avoidLand = this.charType != GameConfig.CharType.LAND;
+
+        // Look up the distance to that terrain at the character's tile, which only matters within its awareness.
+        Map map = gameState.getMap();
+        MapDistanceField distanceField = map.getDistanceField();
+        int col = map.tileColFloor(this.getPosX());
+        int row = map.tileRowFloor(this.getPosY());
+        float awareTiles = (this.getAwareRadius() * GameConfig.CHAR_AVOID_TER_AWARE_MULT) / GameConfig.MAP_TILE_SIZE;
+        if (distanceField.getSignedDistance(col, row, avoidLand) > awareTiles) return;
+
+        // The gradient of the distance points away from the terrain, so only turn if heading against it (i.e., towards terrain).
+        float gradX = distanceField.getGradientX(col, row, avoidLand);
+        float gradY = distanceField.getGradientY(col, row, avoidLand);
+        if ((this.getVelX() * gradX) + (this.getVelY() * gradY) >= 0) return;
+
+        // Turn towards whichever side the gradient lies on, relative to the direction of motion.
+        if ((this.getVelX() * gradY) - (this.getVelY() * gradX) >= 0) this.getVel().rotate(GameConfig.CHAR_AVOID_TER_TURN_ANG);
+        else this.getVel().rotate(-GameConfig.CHAR_AVOID_TER_TURN_ANG);
 
     }
 
@@ -62,7 +62,10 @@ public class CharacterFortBoss extends  CharacterFort {
         while (cornerFortsIter.hasNext()) {
             CharacterFort currCornerFort = cornerFortsIter.next();
             boolean removeCurrFort = currCornerFort.update();
-            if (removeCurrFort) cornerFortsIter.remove();
+            if (removeCurrFort) {
+                gameState.getCollisionLattice().remove(currCornerFort);
+                cornerFortsIter.remove();
+            }
         }
 
         return removeMain;
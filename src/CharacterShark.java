@@ -1,7 +1,5 @@
 import processing.core.PVector;
 
-import java.util.ArrayList;
-
 import static processing.core.PConstants.HALF_PI;
 
 public class CharacterShark extends Character {
@@ -49,21 +47,23 @@ public class CharacterShark extends Character {
         }
 
         // Decision Tree:
+        //      If aware of player but not yet close (within half of awareness), then follow the flow field to the player.
         //      If aware of player, then seek and lunge the player.
         //      If unaware of player, then wander.
         //      Regardless, act as a flock with other sharks.
 
         Character player = super.awareOfPlayer();
-        PVector steer;
-        if (player != null) steer = super.seek(player.getPos(), GameConfig.SEEK_TYPE.LUNGE); // Seek and lunge the player.
-        else steer = super.wander(GameConfig.SHARK_WANDER_RAND_FACT); // The shark is not aware of the player, so wander.
+        PVector steer = null;
+        if (player != null && PVector.dist(this.getPos(), player.getPos()) > (float) this.getAwareRadius() / 2) steer = super.followFlowField();
+        if (steer == null) {
+            if (player != null) steer = super.seek(player.getPos(), GameConfig.SEEK_TYPE.LUNGE); // Seek and lunge the player.
+            else steer = super.wander(GameConfig.SHARK_WANDER_RAND_FACT); // The shark is not aware of the player, so wander.
+        }
         steer.mult(GameConfig.SHARK_FORCE_MULT); // Scale applied forces for sharks.
         super.applyForce(steer); // Apply steering force based on the behaviour enacted by the decision tree.
 
         // Also, ensure a flocking behaviour with other sharks is maintained.
-        ArrayList<? extends  ObjGameGeneric> nearbyObjects = gameState.getCollisionLattice().nearbyObjects(this);
-        nearbyObjects.removeIf(currGameObject -> (!(currGameObject instanceof CharacterShark))); // Remove non-shark objects nearby.
-        PVector flock = this.flock(nearbyObjects); // Calculate flocking force.
+        PVector flock = this.flock(GameConfig.LATTICE_SHARK_MASK); // Calculate flocking force (with nearby sharks only).
         flock.mult(GameConfig.SHARK_FORCE_MULT); // Scale applied forces for sharks.
         super.applyForce(flock);
 
@@ -20,6 +20,11 @@ public class CharacterShip extends Character {
     private ObjCannon leftCannon;
     private ObjCannon rightCannon;
 
+    // Path Following Attributes:
+    private PVector[] path; // Waypoints of the route being followed (shared with other ships, so never modified).
+    private int pathIndex; // Index of the next waypoint to seek.
+    private int pathAge; // Frames since the route was found.
+
 
     // ########################################################################
     // Ship Constructors:
@@ -94,6 +99,8 @@ public class CharacterShip extends Character {
         this.displayShipCannons();
         this.displayShipMast();
 
+        if (Game.showMechanics) this.displayPath(); // Show the route being followed.
+
         // Display attributes all characters should display (e.g., health).
         super.display();
 
@@ -167,6 +174,22 @@ public class CharacterShip extends Character {
 
     }
 
+    private void displayPath() {
+
+        if (this.path == null) return;
+
+        Game.sketch.stroke(this.getCol());
+        Game.sketch.noFill();
+
+        // Line from the ship through each waypoint still to be reached.
+        PVector prev = this.getPos();
+        for (int i = this.pathIndex; i < this.path.length; i++) {
+            Game.sketch.line(prev.x, prev.y, this.path[i].x, this.path[i].y);
+            prev = this.path[i];
+        }
+
+    }
+
 
     // ########################################################################
     // Ship - Weather Forces:
@@ -210,6 +233,45 @@ public class CharacterShip extends Character {
     }
 
 
+    // ########################################################################
+    // Ship - Path Following:
+    // ########################################################################
+
+    PVector pursueAlongPath(ObjGameGeneric target) {
+
+        // Pursue the target around terrain by following a water route towards it; straight pursuit once there is no route
+        // (or it has been followed to its end).
+        PVector steer = this.followPath(target.getPos());
+        return (steer != null) ? steer : this.pursue(target);
+
+    }
+
+    PVector followPath(PVector goal) {
+
+        // Search again once the route is stale, as its goal has likely moved; ships heading the same way share routes.
+        if (this.path == null || this.pathAge >= GameConfig.SHIP_PATH_REPLAN_FRAMES) {
+            this.path = gameState.getMap().getPathfinder().findPath(this.getPosX(), this.getPosY(), goal.x, goal.y);
+            this.pathIndex = 0;
+            this.pathAge = 0;
+        }
+        this.pathAge += 1;
+
+        // Move on from waypoints already reached.
+        while (this.pathIndex < this.path.length &&
+                PVector.dist(this.getPos(), this.path[this.pathIndex]) < GameConfig.SHIP_PATH_WAYPOINT_RADIUS) {
+            this.pathIndex += 1;
+        }
+
+        if (this.pathIndex >= this.path.length) return null; // No route, or the route has been followed to its end.
+        return this.seek(this.path[this.pathIndex], GameConfig.SEEK_TYPE.NORM);
+
+    }
+
+    void clearPath() {
+        this.path = null; // Search for a new route the next time one is followed.
+    }
+
+
     // ########################################################################
     // Ship - Sail:
     // ########################################################################
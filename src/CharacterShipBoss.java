@@ -40,10 +40,11 @@ public class CharacterShipBoss extends CharacterShip {
 
             super.updateCannonsAim(gameState.getPlayer().getPos()); // Have enemy ship's cannons point at player target.
             super.fireCannons(gameState.getPlayer().getPos()); // Fire at the player.
+            super.clearPath(); // Any route towards the player will be stale by the time it is pursued again.
 
-        } else { // Otherwise, pursue the player.
+        } else { // Otherwise, pursue the player around any terrain in the way.
 
-            PVector steer = super.pursue(gameState.getPlayer());
+            PVector steer = super.pursueAlongPath(gameState.getPlayer());
             steer = this.applyWindForceScaling(steer); // Scale the applied behaviour in accordance with sail and wind alignment.
             super.applyForce(steer); // Apply steering force based on the behaviour enacted by the decision tree.
 
@@ -57,15 +57,20 @@ public class CharacterShipEnemy extends CharacterShip {
                 super.updateCannonsAim(gameState.getPlayer().getPos()); // Have enemy ship's cannons point at player target.
                 super.fireCannons(gameState.getPlayer().getPos()); // Fire at the player.
 
-            } else { // Otherwise, pursue the player.
+            } else { // Otherwise, pursue the player around any terrain in the way.
 
-                steer = super.pursue(player);
+                // Within the radius of the flow field (shared by all pursuers), follow it; beyond it, follow a route from
+                // the pathfinder, which is searched again once the ship comes within the field.
+                steer = super.followFlowField();
+                if (steer == null) steer = super.pursueAlongPath(player);
+                else super.clearPath();
 
             }
 
         } else { // The ship is not aware of the player and the player is not in range.
 
             steer = super.wander(GameConfig.SHIP_WANDER_RAND_FACT);
+            super.clearPath(); // Any route towards the player will be stale by the time it is pursued again.
 
         }
 
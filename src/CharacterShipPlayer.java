@@ -202,15 +202,6 @@ public class CharacterShipPlayer extends CharacterShip {
 
     }
 
-    public void panPointToSeek(float x, float y) {
-
-        if (pointToSeek != null) {
-            this.pointToSeek.x -= x;
-            this.pointToSeek.y -= y;
-        }
-
-    }
-
     public PVector getPointToSeek() {
         return pointToSeek;
     }
@@ -30,6 +30,8 @@ public class Game extends PApplet {
 
     private Shop shop; // Shop instance used for managing upgrades within the game within the pause menu.
 
+    private Map menuMap; // Terrain-only map displayed as the background of the title and game over screens.
+
     public static boolean showMechanics; // Whether the implementation should show the underlying game mechanics.
     public static boolean devPaused; // Whether the pause menu should be shown with a developmental style of view.
 
@@ -60,7 +62,6 @@ public class Game extends PApplet {
 
         // Initialise Canvas:
         frameRate(GameConfig.FPS); // Ideal frames-per-second - default is 60fps.
-        sketch.noiseSeed(GameConfig.MAP_SEED); // Seed used by Perlin noise for procedural map generation.
         sketch.randomSeed(GameConfig.RAND_SEED); // Seed used for random generation.
 
         // Prevents immediate panning if the player does not use their cursor in the title screen.
@@ -88,9 +89,8 @@ public class Game extends PApplet {
 
     private void displayTitleScreen() {
 
-        // Temporary generation and display of the map as a cool background.
-        Map tempMap = new Map(new GameState());
-        tempMap.display();
+        // Display of the map as a cool background.
+        displayMenuMap();
 
         // Simple title screen with game title, game controls, and start instructions.
         textAlign(CENTER);
@@ -113,7 +113,10 @@ public class Game extends PApplet {
                     "'W'|'A'|'S'|D' - Enacts Up|Left|Down|Right Map Panning Respectively\n" +
                     "'M' - Skip To Game Over Screen\n" +
                     "'N' - Toggles View Of Underlying Game Mechanics\n" +
-                    "'B' - Toggles Pausing Without Shop Menu\n",
+                    "'B' - Toggles Pausing Without Shop Menu\n" +
+                    "'R' - Benchmarks Map Rendering Backends\n" +
+                    "'G' - Benchmarks Allocation Of Map Co-ordinate Conversion\n" +
+                    "'Z' - Cycles Minimap Zoom Level\n",
                 (float) GameConfig.CANVAS_WIDTH / 2, (float) 2 * GameConfig.CANVAS_HEIGHT / 7);
 
         // Game Begin Instructions:
@@ -124,6 +127,12 @@ public class Game extends PApplet {
 
     }
 
+    private void displayMenuMap() {
+        // The map is only generated once, and without any game objects, as its terrain never changes between frames.
+        if (menuMap == null) menuMap = new Map(null);
+        menuMap.display();
+    }
+
     private void displayGamePlay() {
 
         gameState.update(); // Update all game objects.
@@ -152,9 +161,8 @@ public class Game extends PApplet {
 
     private void displayGameOver() {
 
-        // Temporary generation and display of the map as a cool background.
-        Map tempMap = new Map(new GameState());
-        tempMap.display();
+        // Display of the map as a cool background.
+        displayMenuMap();
 
         // Simple game over screen with title, total deaths, and return instructions.
         textAlign(CENTER);
@@ -263,6 +271,9 @@ public class Game extends PApplet {
                 gameSound.soundGameOver(true); // End game music.
             }
             case 'n', 'N' -> showMechanics = !showMechanics;
+            case 'r', 'R' -> gameState.getMap().benchmarkRenderers();
+            case 'g', 'G' -> gameState.getMap().benchmarkCoordConversion();
+            case 'z', 'Z' -> gameState.getMap().getMinimap().cycleZoom();
 
         }
 
@@ -54,12 +54,20 @@ public class GameConfig {
     // COLLISION LATTICE:
 
     final static int LATTICE_RES = 4; // Number of map tiles considered as a bin in the bin-lattice spatial sub-division.
+    final static int LATTICE_INIT_CAPACITY = 256; // Objects the lattice has room for before its arrays grow.
+
+    enum LatticeKind {CANNONBALL, LOOT, SHIP, FORT, SHARK, SIREN} // Kinds of objects, each kept in its own layer of the lattice.
+
+    // Bitmasks over lattice kind ordinals, so that a query only visits the layers of the kinds it asks for.
+    final static int LATTICE_SHARK_MASK = 1 << LatticeKind.SHARK.ordinal();
+    final static int LATTICE_CHARACTER_MASK = (1 << LatticeKind.SHIP.ordinal()) | (1 << LatticeKind.FORT.ordinal()) |
+                                              (1 << LatticeKind.SHARK.ordinal()) | (1 << LatticeKind.SIREN.ordinal());
 
     // MAP:
 
     final static int MAP_TILE_SIZE = 16; // Number of pixels comprising a tile in the map (i.e., map resolution).
     final static float MAP_SCALE = 0.1f; // Scale (i.e., frequency) of Perlin noise used to generate 2D map.
-    final static int MAP_SEED = 42; // Seed for Perlin noise generation.
+    final static int MAP_SEED = 42; // Seed for Perlin noise generation (see MapNoise).
     final static int RAND_SEED = 101010; // Seed for random generation.
 
     final static int PAN_SPEED = 2; // Speed of panning.
@@ -68,6 +76,10 @@ public class GameConfig {
 
     enum Terrain {DEEP_WATER, SHALLOW_WATER, SAND, GRASS} // Possible terrains assigned to the map.
 
+    // Bitmasks over terrain ordinals, so that land and water checks are a single bit test.
+    final static int TERRAIN_LAND_MASK = (1 << Terrain.SAND.ordinal()) | (1 << Terrain.GRASS.ordinal());
+    final static int TERRAIN_WATER_MASK = (1 << Terrain.DEEP_WATER.ordinal()) | (1 << Terrain.SHALLOW_WATER.ordinal());
+
     // Colour of the different terrains in the map.
     final static int DEEP_WATER_COL = Game.sketch.color(35, 137, 218, 255);
     final static int SHALLOW_WATER_COL = Game.sketch.color(28, 163, 236, 255);
@@ -77,6 +89,27 @@ public class GameConfig {
     final static int MAP_BUFFER = 10; // Size of the map buffer in tiles (i.e., number of off-screen tiles rendered).
     final static int MAP_CAM_BORDER = (MAP_BUFFER / 2) + 2; // Number of tiles in map used as a border for panning.
 
+    final static int MAP_CHUNK_SIZE = 16; // Width and height, in tiles, of the chunks of terrain kept in the terrain cache.
+    final static int MAP_CHUNK_CACHE_SIZE = 1024; // Maximum number of terrain chunks cached before evicting the least recently used.
+    final static int MAP_PREFETCH_DIST = 2; // Number of chunks ahead of the map grid, in the panning direction, to prefetch.
+    final static int MAP_PREGEN_RADIUS = 0; // Chunks pre-generated in every direction around the origin at start-up (0 disables).
+    final static int MAP_PREGEN_THREADS = 0; // Number of threads used to pre-generate the world region (0 uses all cores).
+    final static int MAP_DIST_FIELD_RANGE = 16; // Tiles to terrain beyond which distances are capped (at most 42, to fit a byte).
+    final static int MAP_PATH_CLUSTER_SIZE = MAP_CHUNK_SIZE; // Width and height, in tiles, of the clusters searched between by ships.
+    final static int MAP_PATH_CACHE_SIZE = 64; // Maximum number of routes (between pairs of clusters) cached for re-use.
+    final static int MAP_FLOW_FIELD_INTERVAL = 10; // Frames between re-computing the flow field towards the player.
+    final static int MAP_FLOW_FIELD_RADIUS = 24; // Steps over water from the player the flow field covers; pursuers beyond it path-find.
+    final static int MAP_REGION_NODES_PER_SLOT = 4; // Region label nodes per map grid tile before labels are compacted.
+    final static int MINIMAP_WORLD_CHUNKS = 64; // Width and height, in chunks, of the square of the world (around the origin) the minimap covers.
+    final static int MINIMAP_LEVELS = 5; // Levels of the minimap's mip pyramid, each a quarter of the pixels of the one before.
+    final static int MINIMAP_SIZE = 200; // Width and height of the minimap on screen, in pixels.
+
+    enum MapRenderer {SHAPES, PIXELS} // Backends rasterising map tiles; either through rect() calls, or straight into pixels.
+    final static MapRenderer MAP_RENDERER = MapRenderer.PIXELS; // Backend used to rasterise the map.
+    final static int MAP_RASTER_PARALLEL_TILES = 1024; // Fewest tiles in a rasterised region before rows are filled in parallel.
+    final static int MAP_RENDER_BENCHMARK_ITERATIONS = 20; // Full rasterisations timed per backend by the renderer benchmark.
+    final static int MAP_COORD_BENCHMARK_ITERATIONS = 20; // Passes over the map grid by the co-ordinate conversion benchmark.
+
     // SPAWNING:
 
     final static float SPAWN_PROB_SHARK = 0.002f; // Probability that a spawned object is a shark.
@@ -84,6 +117,10 @@ public class GameConfig {
     final static float SPAWN_PROB_SIREN = 0.0005f; // Probability that a spawned object is a siren.
     final static float SPAWN_PROB_FORT = 0.004f; // Probability that a spawned objects is an enemy fort.
     final static float SPAWN_PROB_LOOT = 0.003f; // Probability that a spawned object is a loot item.
+    final static int SPAWN_FORT_MIN_ISLAND_TILES = 8; // Forts are not built on islands with fewer land tiles than this in the map.
+    final static int SPAWN_REGISTRY_CAPACITY = 1024; // Initial capacity of the registry of live and cleared spawn tiles.
+    final static int SPAWN_REGISTRY_KEEP_DIST = 512; // Tiles beyond the map grid within which cleared spawns stay cleared.
+    final static int MAP_RESPAWN_SAMPLES = 64; // Most tiles of the respawn terrain sampled before settling for a fallback.
 
     // WEATHER CONDITIONS:
 
@@ -140,10 +177,8 @@ public class GameConfig {
 
     final static int CHAR_AWARE_MULT = 7; // Multiplier by character size to determine size of awareness radius.
 
-    final static float CHAR_AVOID_TER_RAY_ANG = PI / 8; // Angle of separation between cast rays when avoiding terrain.
     final static float CHAR_AVOID_TER_TURN_ANG = PI / 32; // Amount of turning a character can enact to avoid the terrain.
     final static float CHAR_AVOID_TER_AWARE_MULT = 0.75f; // Proportion of awareness radius that can be used for land avoidance.
-    final static int CHAR_AVOID_TER_NUM_SAMPLES = 15; // Number of samples along terrain avoidance ray to detect terrain to avoid.
 
     final static float CHAR_FLOCK_MIN_MULT = 3; // Multiplier by character size determining min flock distance (for separation).
     final static float CHAR_FLOCK_MAX_MULT = 15; // Multiplier by character size determining max flock distance (for align & cohesion).
@@ -162,6 +197,9 @@ public class GameConfig {
     final static float SHIP_SAIL_SIZE_MULT = 0.25f; // Multiplier used for determining size of sail display.
     final static float SHIP_SAIL_TURN_SPEED = (2 * PI) / (8 * FPS); // Roughly how many seconds to turn sail a full circle.
 
+    final static int SHIP_PATH_REPLAN_FRAMES = FPS / 2; // Frames a route is followed before searching again (as its goal moves).
+    final static int SHIP_PATH_WAYPOINT_RADIUS = 2 * MAP_TILE_SIZE; // Distance within which a waypoint counts as reached.
+
     final static int SHIP_MAST_COL = Game.sketch.color(139, 69, 19, 140); // Mast colour for ships.
     final static int SHIP_SAIL_COL = Game.sketch.color(255, 255, 255, 140); // Sail colour for ships.
 
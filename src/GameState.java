@@ -1,6 +1,7 @@
 import processing.core.PApplet;
 import processing.core.PVector;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Iterator;
 
@@ -14,10 +15,12 @@ public class GameState {
     // ########################################################################
 
     // Camera:
+    // Game objects live in world co-ordinates; the camera pan is the world position of the top-left of the screen, applied
+    // once as a render transform, so panning does not need to touch any game object.
     private float camXPan; // Camera panning along x-axis.
     private float camYPan; // Camera panning along y-axis.
-    private float camXPanDelta = 0; // Change in camera pan along x-axis this draw cycle.
-    private float camYPanDelta = 0; // Change in camera pan along y-axis this draw cycle.
+    private float camXPanDelta = 0; // Change in camera pan along x-axis since the last prefetch.
+    private float camYPanDelta = 0; // Change in camera pan along y-axis since the last prefetch.
 
     // Weather Conditions:
     private float windDirAngle; // Direction of the wind as an angle between 0 and 2PI.
@@ -40,6 +43,11 @@ public class GameState {
     private CharacterShipBoss flagship; // The final boss of the game.
     private CharacterFortBoss fortBoss; // Mini boss encounter of the mega-fort.
 
+    // Allocation Profiling:
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = initThreadMXBean(); // Null if unsupported.
+    private long allocatedBytesPrev = -1; // Bytes allocated by the draw thread as of the previous update (-1 if none).
+    private long allocatedBytesPerFrame; // Bytes allocated by the draw thread over the previous frame.
+
 
     // ########################################################################
     // Game State Constructors:
@@ -75,6 +83,8 @@ public class GameState {
 
     public void update() {
 
+        this.measureAllocation(); // Measure garbage created by the draw thread over the last frame.
+
         this.updateCollisionLattice(); // Update the collision lattice.
 
         // Updating Game Objects:
@@ -87,6 +97,7 @@ public class GameState {
         this.updateLoot(); // Update loot.
 
         this.updatePlayer(); // Update player.
+        this.updateFlowField(); // Update the flow field leading pursuers to the player.
         this.updateFlagship(); // Update final boss.
         this.updateFortBoss(); // Update the fort mini-boss.
         this.updateEnemyShips(); // Update enemy ships.
@@ -98,13 +109,17 @@ public class GameState {
         // Updating Game Camera:
 
         this.handleCameraPanning(); // Handle panning of the map given the player's position and movement direction.
-        this.accountForPan(); // Apply camera panning to all objects.
+        this.prefetchMap(); // Prefetch terrain ahead of the camera in the direction it is panning.
+        this.updateAim(); // The world under the mouse has moved with the camera, so re-aim.
 
     }
 
     public void display() {
 
-        // Displaying Game Objects:
+        // Displaying Game Objects (in world co-ordinates, viewed through the camera):
+
+        Game.sketch.pushMatrix();
+        Game.sketch.translate(-this.camXPan, -this.camYPan);
 
         this.displayMap(); // Display the map.
 
@@ -119,15 +134,21 @@ public class GameState {
         this.displayFlagship(); // Display flagship.
         this.displayPlayer(); // Display player.
 
-        this.displayWind(); // Display the weather.
         this.displayAim(); // Display aiming reticule.
 
+        if (Game.showMechanics) this.collisionLattice.display();
+
+        Game.sketch.popMatrix();
+
+        // Displaying Overlays (in screen co-ordinates):
+
+        this.displayWind(); // Display the weather.
+
         this.displayHUD(); // Display additional info on-screen the player needs.
 
-        if (Game.showMechanics) {
-            this.collisionLattice.display();
-            this.displayGameObjectStructs();
-        }
+        this.displayMinimap(); // Display the explored world around the camera.
+
+        if (Game.showMechanics) this.displayGameObjectStructs();
 
     }
 
@@ -154,6 +175,20 @@ public class GameState {
 
     }
 
+    private void displayMinimap() {
+
+        // Minimap in the bottom-right corner, centred on the middle of the camera's view.
+        int size = GameConfig.MINIMAP_SIZE;
+        float x = GameConfig.CANVAS_WIDTH - size - 20, y = GameConfig.CANVAS_HEIGHT - size - 20;
+        float focusX = this.camXPan + ((float) GameConfig.CANVAS_WIDTH / 2);
+        float focusY = this.camYPan + ((float) GameConfig.CANVAS_HEIGHT / 2);
+
+        MapMinimap minimap = this.map.getMinimap();
+        minimap.display(x, y, size, focusX, focusY, GameConfig.CANVAS_WIDTH, GameConfig.CANVAS_HEIGHT);
+        minimap.displayMarker(x, y, size, focusX, focusY, this.player.getPosX(), this.player.getPosY(), GameConfig.PLYR_ICON_COL);
+
+    }
+
     private void displayGameObjectStructs() {
 
         Game.sketch.textAlign(LEFT);
@@ -168,6 +203,41 @@ public class GameState {
         Game.sketch.text("NUM SHARKS: " + this.sharks.size(), (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 60);
         Game.sketch.text("NUM SIRENS: " + this.sirens.size(), (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 75);
 
+        MapTerrainCache terrainCache = this.map.getTerrainCache();
+        Game.sketch.text("MAP CHUNKS: " + terrainCache.getNumChunks() + " (HITS: " + terrainCache.getChunkHits() +
+                ", MISSES: " + terrainCache.getChunkMisses() + ")", (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 90);
+        Game.sketch.text("MAP PREFETCH: " + GameConfig.MAP_PREFETCH_DIST + " CHUNKS AHEAD (PENDING: " +
+                this.map.getTerrainPrefetcher().getNumPending() + ", LATE: " + this.map.getLateChunkGenerations() + ")",
+                (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 105);
+        float[] rendererMillis = this.map.getRendererBenchmarkMillis();
+        Game.sketch.text("MAP RENDERER: " + this.map.getRenderer() + (rendererMillis == null ? " (PRESS 'R' TO BENCHMARK)" :
+                " (SHAPES: " + PApplet.nf(rendererMillis[GameConfig.MapRenderer.SHAPES.ordinal()], 0, 2) + " MS, PIXELS: " +
+                PApplet.nf(rendererMillis[GameConfig.MapRenderer.PIXELS.ordinal()], 0, 2) + " MS PER FULL RASTER)"),
+                (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 120);
+        MapSpawnRegistry spawnRegistry = this.map.getSpawnRegistry();
+        Game.sketch.text("MAP SPAWNS: " + spawnRegistry.getNumLive() + " LIVE, " + spawnRegistry.getNumCleared() +
+                " CLEARED, " + spawnRegistry.getNumEvicted() + " FORGOTTEN (SIZE: " + spawnRegistry.getSize() + ", CAPACITY: " +
+                spawnRegistry.getCapacity() + ")", (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 135);
+        Game.sketch.text("ALLOCATION: " + (isAllocationMeasured() ? (this.allocatedBytesPerFrame / 1024) + " KB/FRAME" : "UNAVAILABLE") +
+                " (PRESS 'G' TO BENCHMARK CO-ORDINATE CONVERSION)",
+                (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 150);
+        MapPathfinder pathfinder = this.map.getPathfinder();
+        Game.sketch.text("MAP PATHS: " + pathfinder.getNumSearches() + " SEARCHES, " + pathfinder.getNumCacheHits() +
+                " CACHE HITS, " + pathfinder.getNumPruned() + " PRUNED (GRAPH: " + pathfinder.getNumNodes() + " NODES, " +
+                pathfinder.getNumEdges() + " EDGES, " + pathfinder.getNumClusterBuilds() + " CLUSTER BUILDS)",
+                (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 165);
+        Game.sketch.text("MAP FLOW FIELD: " + this.map.getFlowField().getNumReached() + " TILES REACH THE PLAYER WITHIN " +
+                GameConfig.MAP_FLOW_FIELD_RADIUS + " STEPS (UPDATED EVERY " + GameConfig.MAP_FLOW_FIELD_INTERVAL + " FRAMES)",
+                (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 180);
+        MapRegionLabels regionLabels = this.map.getRegionLabels();
+        Game.sketch.text("MAP REGIONS: " + regionLabels.getNumNodes() + "/" + regionLabels.getCapacity() + " LABELS USED (" +
+                regionLabels.getNumCompactions() + " COMPACTIONS)", (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 195);
+        MapMinimap minimap = this.map.getMinimap();
+        Game.sketch.text("MAP MINIMAP: " + minimap.getNumExplored() + " CHUNKS EXPLORED, LEVEL " + (minimap.getZoomLevel() + 1) + "/" +
+                minimap.getNumLevels() + " (PRESS 'Z' TO ZOOM)", (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 210);
+        Game.sketch.text("COLLISION LATTICE: " + this.collisionLattice.getNumObjects() + " OBJECTS (" +
+                this.collisionLattice.getNumCellChanges() + " CELL CHANGES)", (float) GameConfig.CANVAS_WIDTH / 20, (float) (GameConfig.CANVAS_HEIGHT / 20) + 225);
+
     }
 
 
@@ -186,57 +256,28 @@ public class GameState {
 
     public void panLeft(float xToAdd) {
         this.camXPan -= xToAdd;
-        this.camXPanDelta = -xToAdd;
+        this.camXPanDelta -= xToAdd;
     }
 
     public void panRight(float xToAdd) {
         this.camXPan += xToAdd;
-        this.camXPanDelta = xToAdd;
+        this.camXPanDelta += xToAdd;
     }
 
     public void panUp(float yToAdd) {
         this.camYPan -= yToAdd;
-        this.camYPanDelta = -yToAdd;
+        this.camYPanDelta -= yToAdd;
     }
 
     public void panDown(float yToAdd) {
         this.camYPan += yToAdd;
-        this.camYPanDelta = yToAdd;
-    }
-
-    public void accountForPan() {
-
-        // Update the positions of all game objects to account for pan.
-        // This is naive, but permissible given that panning is expected to happen somewhat rarely.
-        if (camXPanDelta != 0 || camYPanDelta != 0) {
-
-            for (ObjGameGeneric currObject : this.cannonBalls) currObject.updatePan(this.camXPanDelta, this.camYPanDelta);
-            for (ObjGameGeneric currObject : this.loot) currObject.updatePan(this.camXPanDelta, this.camYPanDelta);
-
-            this.player.updatePan(this.camXPanDelta, this.camYPanDelta);
-            this.player.panPointToSeek(this.camXPanDelta, this.camYPanDelta);
-
-            this.flagship.updatePan(this.camXPanDelta, this.camYPanDelta);
-
-            this.fortBoss.updatePan(this.camXPanDelta, this.camYPanDelta);
-            for (ObjGameGeneric currObject : this.fortBoss.getCornerForts()) currObject.updatePan(this.camXPanDelta, this.camYPanDelta);
-
-            for (ObjGameGeneric currObject : this.enemyShips) currObject.updatePan(this.camXPanDelta, this.camYPanDelta);
-            for (ObjGameGeneric currObject : this.forts) currObject.updatePan(this.camXPanDelta, this.camYPanDelta);
-            for (ObjGameGeneric currObject : this.sharks) currObject.updatePan(this.camXPanDelta, this.camYPanDelta);
-            for (ObjGameGeneric currObject : this.sirens) currObject.updatePan(this.camXPanDelta, this.camYPanDelta);
-
-            this.camXPanDelta = 0;
-            this.camYPanDelta = 0;
-        }
-
+        this.camYPanDelta += yToAdd;
     }
 
     private void handleCameraPanning() {
 
-        int[] aimMapTile = this.map.getMapGridCoordAtPos((int) this.aim.x, (int) this.aim.y);
-        int aimMapCol = aimMapTile[0];
-        int aimMapRow = aimMapTile[1];
+        int aimMapCol = this.map.tileColFloor(this.aim.x);
+        int aimMapRow = this.map.tileRowFloor(this.aim.y);
 
         if (aimMapCol <= GameConfig.MAP_CAM_BORDER) {
             this.panLeft(GameConfig.PAN_SPEED);
@@ -252,6 +293,12 @@ public class GameState {
 
     }
 
+    public boolean isOnScreen(float x, float y) {
+        // Whether the given world position is within the view of the camera.
+        return !(x < this.camXPan || x > this.camXPan + GameConfig.CANVAS_WIDTH ||
+                 y < this.camYPan || y > this.camYPan + GameConfig.CANVAS_HEIGHT);
+    }
+
     public float getCamXPan() {
         return camXPan;
     }
@@ -340,6 +387,55 @@ public class GameState {
         this.map.update(this.camXPan, this.camYPan); // Update the map, which requires re-generation depending on cam.
     }
 
+    private static com.sun.management.ThreadMXBean initThreadMXBean() {
+
+        // Per-thread allocation counts are a HotSpot extension of the platform bean; other JVMs may not provide (or
+        // support) them, in which case allocation is simply not measured.
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!allocationMXBean.isThreadAllocatedMemorySupported()) return null;
+        try {
+            if (!allocationMXBean.isThreadAllocatedMemoryEnabled()) allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+        return allocationMXBean;
+
+    }
+
+    private void measureAllocation() {
+
+        if (!isAllocationMeasured()) return; // Left at zero when the JVM cannot report allocation.
+        long allocatedBytes = getThreadAllocatedBytes();
+        if (this.allocatedBytesPrev >= 0) this.allocatedBytesPerFrame = allocatedBytes - this.allocatedBytesPrev;
+        this.allocatedBytesPrev = allocatedBytes;
+
+    }
+
+    public static boolean isAllocationMeasured() {
+        return THREAD_MX_BEAN != null; // Whether the JVM reports bytes allocated per thread.
+    }
+
+    public static long getThreadAllocatedBytes() {
+        return THREAD_MX_BEAN.getCurrentThreadAllocatedBytes(); // Total bytes ever allocated by the calling thread.
+    }
+
+    private void updateFlowField() {
+        this.map.getFlowField().update(this.player.getPosX(), this.player.getPosY()); // Re-computed every so often.
+    }
+
+    private void prefetchMap() {
+
+        this.map.prefetchTerrain(this.camXPanDelta, this.camYPanDelta); // Map generates terrain ahead of the camera pan.
+
+        // Pan deltas accumulate every pan since the last prefetch (including those from key presses between draw
+        // cycles), so are only reset once used.
+        this.camXPanDelta = 0;
+        this.camYPanDelta = 0;
+
+    }
+
     private void displayMap() {
         this.map.display(); // Display the map.
     }
@@ -354,30 +450,47 @@ public class GameState {
     // ########################################################################
 
     private void initCollisionLattice() {
+
         this.collisionLattice = new MapCollisionLattice(this.map);
+
+        // Index all game objects in the collision lattice; from now on, objects are indexed as they are added.
+
+        for (ObjCannonBall currCannonBall : this.cannonBalls) this.collisionLattice.insert(currCannonBall, GameConfig.LatticeKind.CANNONBALL);
+        for (ObjLoot currLoot : this.loot) this.collisionLattice.insert(currLoot, GameConfig.LatticeKind.LOOT);
+
+        this.collisionLattice.insert(this.player, GameConfig.LatticeKind.SHIP);
+        this.collisionLattice.insert(this.flagship, GameConfig.LatticeKind.SHIP);
+
+        if (this.fortBoss != null) {
+            this.collisionLattice.insert(this.fortBoss, GameConfig.LatticeKind.FORT);
+            for (CharacterFort currFort : this.fortBoss.getCornerForts()) this.collisionLattice.insert(currFort, GameConfig.LatticeKind.FORT);
+        }
+
+        for (CharacterShipEnemy currEnemyShip : this.enemyShips) this.collisionLattice.insert(currEnemyShip, GameConfig.LatticeKind.SHIP);
+        for (CharacterFort currFort : this.forts) this.collisionLattice.insert(currFort, GameConfig.LatticeKind.FORT);
+        for (CharacterShark currShark : this.sharks) this.collisionLattice.insert(currShark, GameConfig.LatticeKind.SHARK);
+        for (CharacterSiren currSiren : this.sirens) this.collisionLattice.insert(currSiren, GameConfig.LatticeKind.SIREN);
+
     }
 
     private void updateCollisionLattice() {
 
-        // Reset the collision lattice:
-        this.collisionLattice.reset();
+        // Move the objects that move into their current lattice cells (a no-op unless they have crossed into another).
+        // Loot, forts and sirens stay put, so are left where they were indexed; panning moves no object between cells.
 
-        // Register all game objects in the collision lattice:
+        for (ObjCannonBall currCannonBall : this.cannonBalls) this.collisionLattice.move(currCannonBall);
 
-        for (ObjCannonBall currCannonBall : this.cannonBalls) this.collisionLattice.register(currCannonBall);
-        for (ObjLoot currLoot : this.loot) this.collisionLattice.register(currLoot);
+        this.collisionLattice.move(this.player);
+        this.collisionLattice.move(this.flagship);
 
-        this.collisionLattice.register(this.player);
-        this.collisionLattice.register(this.flagship);
+        for (CharacterShipEnemy currEnemyShip : this.enemyShips) this.collisionLattice.move(currEnemyShip);
+        for (CharacterShark currShark : this.sharks) this.collisionLattice.move(currShark);
 
-        this.collisionLattice.register(this.fortBoss);
-        for (CharacterFort currFort : this.fortBoss.getCornerForts()) this.collisionLattice.register(currFort);
-
-        for (CharacterShipEnemy currEnemyShip : this.enemyShips) this.collisionLattice.register(currEnemyShip);
-        for (CharacterFort currFort : this.forts) this.collisionLattice.register(currFort);
-        for (CharacterShark currShark : this.sharks) this.collisionLattice.register(currShark);
-        for (CharacterSiren currSiren : this.sirens) this.collisionLattice.register(currSiren);
+    }
 
+    private void addToCollisionLattice(ObjGameGeneric obj, GameConfig.LatticeKind kind) {
+        // Objects spawned along with the map (i.e., before the lattice exists) are indexed when the lattice is initialised.
+        if (this.collisionLattice != null) this.collisionLattice.insert(obj, kind);
     }
 
     public MapCollisionLattice getCollisionLattice() {
@@ -394,7 +507,7 @@ public class GameState {
     }
 
     public void updateAim() {
-        this.aim = new PVector(Game.sketch.mouseX, Game.sketch.mouseY);
+        this.aim = new PVector(Game.sketch.mouseX + this.camXPan, Game.sketch.mouseY + this.camYPan); // Mouse in world co-ordinates.
     }
 
     private void displayAim() {
@@ -415,14 +528,15 @@ public class GameState {
     public void displayInfoAtAim() {
 
         // Display the terrain under the mouse cursor.
-        int[] mapGridPos = this.map.getMapGridCoordAtPos((int) this.aim.x, (int) this.aim.y);
+        int mapGridCol = this.map.tileColFloor(this.aim.x);
+        int mapGridRow = this.map.tileRowFloor(this.aim.y);
         Game.sketch.fill(GameConfig.TITLE_TEXT_COLOR);
         Game.sketch.textSize((float) GameConfig.TITLE_TEXT_SIZE / 2);
 
         Game.sketch.text("PosX: " + this.aim.x + ", PosY: " + this.aim.y, this.aim.x, this.aim.y - 30);
-        Game.sketch.text("MapGridCol: " + mapGridPos[0] + ", MapGridRow: " + mapGridPos[1], this.aim.x, this.aim.y - 20);
+        Game.sketch.text("MapGridCol: " + mapGridCol + ", MapGridRow: " + mapGridRow, this.aim.x, this.aim.y - 20);
 
-        GameConfig.Terrain terrainAtMouse = this.map.getTerrainAtPos((int) this.aim.x, (int) this.aim.y);
+        GameConfig.Terrain terrainAtMouse = this.map.getTerrainAtPos(this.aim.x, this.aim.y);
         Game.sketch.text(String.valueOf(terrainAtMouse), this.aim.x, this.aim.y - 10);
 
     }
@@ -448,7 +562,10 @@ public class GameState {
 
             ObjCannonBall currCannonBall = cannonBallsIter.next();
             boolean remove = currCannonBall.update();
-            if (remove) cannonBallsIter.remove();
+            if (remove) {
+                this.collisionLattice.remove(currCannonBall);
+                cannonBallsIter.remove();
+            }
 
         }
 
@@ -460,6 +577,7 @@ public class GameState {
 
     public void addCannonBall(ObjCannonBall cannonBall) {
         this.cannonBalls.add(cannonBall);
+        this.addToCollisionLattice(cannonBall, GameConfig.LatticeKind.CANNONBALL);
     }
 
     public ArrayList<ObjCannonBall> getCannonBalls() {
@@ -483,7 +601,11 @@ public class GameState {
 
             ObjLoot currLoot = lootIter.next();
             boolean remove = currLoot.update();
-            if (remove) lootIter.remove();
+            if (remove) {
+                this.map.releaseSpawn(currLoot.getSpawnTile(), currLoot.isCollected()); // Collected loot never returns.
+                this.collisionLattice.remove(currLoot);
+                lootIter.remove();
+            }
 
         }
 
@@ -493,21 +615,24 @@ public class GameState {
         for (ObjLoot currLoot : this.loot) currLoot.display();
     }
 
-    public void addLoot(PVector pos) {
+    public void addLoot(PVector pos, long spawnTile) {
 
         // Determine amount of gold to give when this loot is collected.
         int goldAward = (int) Game.sketch.random(GameConfig.LOOT_GOLD_AWARD_MIN, GameConfig.LOOT_GOLD_AWARD_MAX);
 
-        this.loot.add(
-                new ObjLoot(
-                        pos.x,
-                        pos.y,
-                        0,
-                        GameConfig.LOOT_RADIUS,
-                        GameConfig.LOOT_COL,
-                        goldAward,
-                        true,
-                        this));
+        ObjLoot newLoot = new ObjLoot(
+                pos.x,
+                pos.y,
+                0,
+                GameConfig.LOOT_RADIUS,
+                GameConfig.LOOT_COL,
+                goldAward,
+                true,
+                this);
+
+        newLoot.setSpawnTile(spawnTile);
+        this.loot.add(newLoot);
+        this.addToCollisionLattice(newLoot, GameConfig.LatticeKind.LOOT);
 
     }
 
@@ -627,6 +752,8 @@ public class GameState {
             boolean remove = currEnemyShip.update();
             if (remove) {
                 if (!currEnemyShip.isAlive()) Game.gameSound.soundCharDeath(true); // Death sound effect.
+                this.map.releaseSpawn(currEnemyShip.getSpawnTile(), !currEnemyShip.isAlive()); // Killed enemies never return.
+                this.collisionLattice.remove(currEnemyShip);
                 enemyShipsIter.remove();
             }
 
@@ -638,23 +765,26 @@ public class GameState {
         for (CharacterShipEnemy currEnemyShip : this.enemyShips) currEnemyShip.display();
     }
 
-    public void addEnemyShip(PVector pos) {
+    public void addEnemyShip(PVector pos, long spawnTile) {
+
+        CharacterShipEnemy newEnemyShip = new CharacterShipEnemy(
+                pos.x,
+                pos.y,
+                (this.player.getMaxSpeed() * GameConfig.ENEMY_SHIP_SCALE_MULT),
+                GameConfig.ENEMY_SHIP_RADIUS,
+                GameConfig.ENEMY_SHIP_COL,
+                (int) (this.player.getBaseHealth() * GameConfig.ENEMY_SHIP_SCALE_MULT),
+                true,
+                GameConfig.ENEMY_SHIP_DEF_NUM_VOLLEYS,
+                this.player.getNumBallsPerVolley(),
+                this.player.getCannonRange(),
+                (int) (this.player.getCannonCoolDown() / GameConfig.ENEMY_SHIP_SCALE_MULT),
+                this.player.getDamagePerBall(),
+                this);
 
-        this.enemyShips.add(
-                new CharacterShipEnemy(
-                        pos.x,
-                        pos.y,
-                        (this.player.getMaxSpeed() * GameConfig.ENEMY_SHIP_SCALE_MULT),
-                        GameConfig.ENEMY_SHIP_RADIUS,
-                        GameConfig.ENEMY_SHIP_COL,
-                        (int) (this.player.getBaseHealth() * GameConfig.ENEMY_SHIP_SCALE_MULT),
-                        true,
-                        GameConfig.ENEMY_SHIP_DEF_NUM_VOLLEYS,
-                        this.player.getNumBallsPerVolley(),
-                        this.player.getCannonRange(),
-                        (int) (this.player.getCannonCoolDown() / GameConfig.ENEMY_SHIP_SCALE_MULT),
-                        this.player.getDamagePerBall(),
-                        this));
+        newEnemyShip.setSpawnTile(spawnTile);
+        this.enemyShips.add(newEnemyShip);
+        this.addToCollisionLattice(newEnemyShip, GameConfig.LatticeKind.SHIP);
 
     }
 
@@ -681,6 +811,8 @@ public class GameState {
             boolean remove = currFort.update();
             if (remove) {
                 if (!currFort.isAlive()) Game.gameSound.soundCharDeath(true);
+                this.map.releaseSpawn(currFort.getSpawnTile(), !currFort.isAlive());
+                this.collisionLattice.remove(currFort);
                 fortsIter.remove();
             }
 
@@ -692,26 +824,29 @@ public class GameState {
         for (CharacterFort currFort : this.forts) currFort.display();
     }
 
-    public void addFort(PVector pos) {
+    public void addFort(PVector pos, long spawnTile) {
 
         int numCannons = (int) Game.sketch.random(GameConfig.FORT_CANNONS_MIN, GameConfig.FORT_CANNONS_MAX);
 
-        this.forts.add(
-                new CharacterFort(
-                        pos.x,
-                        pos.y,
-                        0,
-                        GameConfig.FORT_RADIUS,
-                        GameConfig.FORT_INNER_COL,
-                        (int) (this.player.getBaseHealth() * GameConfig.FORT_SCALE_MULT),
-                        true,
-                        numCannons,
-                        GameConfig.FORT_DEF_NUM_VOLLEYS,
-                        this.player.getNumBallsPerVolley(),
-                        (int) (this.player.getCannonRange() / GameConfig.FORT_SCALE_MULT),
-                        (int) (this.player.getCannonCoolDown() / GameConfig.FORT_SCALE_MULT),
-                        this.player.getDamagePerBall(),
-                        this));
+        CharacterFort newFort = new CharacterFort(
+                pos.x,
+                pos.y,
+                0,
+                GameConfig.FORT_RADIUS,
+                GameConfig.FORT_INNER_COL,
+                (int) (this.player.getBaseHealth() * GameConfig.FORT_SCALE_MULT),
+                true,
+                numCannons,
+                GameConfig.FORT_DEF_NUM_VOLLEYS,
+                this.player.getNumBallsPerVolley(),
+                (int) (this.player.getCannonRange() / GameConfig.FORT_SCALE_MULT),
+                (int) (this.player.getCannonCoolDown() / GameConfig.FORT_SCALE_MULT),
+                this.player.getDamagePerBall(),
+                this);
+
+        newFort.setSpawnTile(spawnTile);
+        this.forts.add(newFort);
+        this.addToCollisionLattice(newFort, GameConfig.LatticeKind.FORT);
 
     }
 
@@ -738,6 +873,8 @@ public class GameState {
             boolean remove = currShark.update();
             if (remove) {
                 if (!currShark.isAlive()) Game.gameSound.soundCharDeath(true);
+                this.map.releaseSpawn(currShark.getSpawnTile(), !currShark.isAlive());
+                this.collisionLattice.remove(currShark);
                 sharksIter.remove();
             }
 
@@ -749,19 +886,22 @@ public class GameState {
         for (CharacterShark currShark : this.sharks) currShark.display();
     }
 
-    public void addShark(PVector pos) {
+    public void addShark(PVector pos, long spawnTile) {
 
-        this.sharks.add(
-                new CharacterShark(
-                        pos.x,
-                        pos.y,
-                        GameConfig.SHARK_MAX_SPEED,
-                        GameConfig.SHARK_RADIUS,
-                        GameConfig.SHARK_COL,
-                        (int) (this.player.getBaseHealth() * GameConfig.SHARK_SCALE_MULT),
-                        true,
-                        (this.player.getDamagePerBall() * GameConfig.SHARK_SCALE_MULT * GameConfig.SHARK_DMG_SCALE),
-                        this));
+        CharacterShark newShark = new CharacterShark(
+                pos.x,
+                pos.y,
+                GameConfig.SHARK_MAX_SPEED,
+                GameConfig.SHARK_RADIUS,
+                GameConfig.SHARK_COL,
+                (int) (this.player.getBaseHealth() * GameConfig.SHARK_SCALE_MULT),
+                true,
+                (this.player.getDamagePerBall() * GameConfig.SHARK_SCALE_MULT * GameConfig.SHARK_DMG_SCALE),
+                this);
+
+        newShark.setSpawnTile(spawnTile);
+        this.sharks.add(newShark);
+        this.addToCollisionLattice(newShark, GameConfig.LatticeKind.SHARK);
 
     }
 
@@ -788,6 +928,8 @@ public class GameState {
             boolean remove = currSiren.update();
             if (remove) {
                 if (!currSiren.isAlive()) Game.gameSound.soundCharDeath(true);
+                this.map.releaseSpawn(currSiren.getSpawnTile(), !currSiren.isAlive());
+                this.collisionLattice.remove(currSiren);
                 sirensIter.remove();
             }
 
@@ -799,19 +941,22 @@ public class GameState {
         for (CharacterSiren currSiren : this.sirens) currSiren.display();
     }
 
-    public void addSiren(PVector pos) {
+    public void addSiren(PVector pos, long spawnTile) {
+
+        CharacterSiren newSiren = new CharacterSiren(
+                pos.x,
+                pos.y,
+                0,
+                GameConfig.SIREN_RADIUS,
+                GameConfig.SIREN_COL,
+                (int) (this.player.getBaseHealth() * GameConfig.SIREN_SCALE_MULT),
+                true,
+                this.player.getDamagePerBall(),
+                this);
 
-        this.sirens.add(
-                new CharacterSiren(
-                        pos.x,
-                        pos.y,
-                        0,
-                        GameConfig.SIREN_RADIUS,
-                        GameConfig.SIREN_COL,
-                        (int) (this.player.getBaseHealth() * GameConfig.SIREN_SCALE_MULT),
-                        true,
-                        this.player.getDamagePerBall(),
-                        this));
+        newSiren.setSpawnTile(spawnTile);
+        this.sirens.add(newSiren);
+        this.addToCollisionLattice(newSiren, GameConfig.LatticeKind.SIREN);
 
     }
 
@@ -846,10 +991,14 @@ public class GameState {
 
     private void updateFortBoss() {
 
+        if (this.fortBoss == null) return; // The fort mini-boss has already been defeated.
+
         boolean remove = this.fortBoss.update();
 
         if (remove) {
             if (!this.fortBoss.isAlive()) Game.gameSound.soundCharDeath(true);
+            this.collisionLattice.remove(this.fortBoss);
+            for (CharacterFort currFort : this.fortBoss.getCornerForts()) this.collisionLattice.remove(currFort);
             this.fortBoss = null;
         }
 
@@ -1,5 +1,12 @@
+import processing.core.PGraphics;
+import processing.core.PImage;
 import processing.core.PVector;
 
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static processing.core.PApplet.*;
+
 public class Map {
 
 
@@ -9,8 +16,6 @@ public class Map {
 
     private GameState gameState; // Reference to the game state.
 
-    private float xROff, yROff; // Rendering offset - when panning less than 1 tile of space.
-
     private int xTOff, yTOff; // Terrain offset - when panning more than 1 tile of space.
     private int xTOffPrev, yTOffPrev; // Keeping track of change in terrain offset between updates.
 
@@ -18,7 +23,40 @@ public class Map {
     private final int buffer = GameConfig.MAP_BUFFER;
 
     private final int mapGridWidth, mapGridHeight; // Width and height of the grid representing the map.
-    private final GameConfig.Terrain[][] mapGrid; // 2D grid representing the map; thus, the map is tiled.
+    private final byte[] mapGrid; // Flat, row-major grid of terrain ordinals representing the map; thus, the map is tiled.
+
+    // The map grid is a toroidal ring buffer: a terrain tile lives in a fixed slot, so panning only generates new tiles.
+    private int mapGridXSlotOff, mapGridYSlotOff; // Slot holding the top-left tile of the map grid (i.e., col/row 0).
+
+    private final MapNoise noise; // Seeded noise used to generate terrain, independent of the Processing sketch.
+    private final MapTerrainCache terrainCache; // Cache of generated terrain chunks, so revisited areas are not re-generated.
+    private final MapTerrainPrefetcher terrainPrefetcher; // Generates chunks ahead of the camera on a background thread.
+    private final long[] landBits; // One bit per map grid slot, set where the slot's terrain is land (for collisions).
+    private final MapDistanceField distanceField; // Distances to land and water, for steering away from terrain.
+    private final MapPathfinder pathfinder; // Water routes between clusters of the map grid, for ships to follow.
+    private final MapFlowField flowField; // Directions over water towards the player, shared by everything pursuing them.
+    private final MapRegionLabels regionLabels; // Islands and bodies of water that tiles belong to.
+    private final MapMinimap minimap; // Downsampled images of the explored world (null for terrain-only maps).
+    private final MapTerrainIndex terrainIndex; // Map grid slots of each terrain, for sampling tiles of a given terrain.
+    private final MapSpawnRegistry spawnRegistry; // World tiles whose spawns are live or cleared, so they do not spawn again.
+    private long lateChunkGenerations; // Chunks that had to be generated on the draw thread while scrolling the map.
+
+    // Region of the world pre-generated once at start-up; shared by all maps, as terrain only depends on the seed.
+    private static MapRegionGenerator pregenRegion;
+
+    // Offscreen raster of the map grid laid out by ring buffer slot, so only newly generated tiles are ever re-drawn.
+    private PImage terrainLayer;
+    private GameConfig.MapRenderer renderer; // Backend used to rasterise tiles to the terrain layer.
+    private float[] rendererBenchmarkMillis; // Average full-grid rasterisation time per backend (null until benchmarked).
+
+    private static final GameConfig.Terrain[] TERRAINS = GameConfig.Terrain.values(); // Terrains indexed by ordinal.
+    private static final int[] TERRAIN_COLOURS = {GameConfig.DEEP_WATER_COL, GameConfig.SHALLOW_WATER_COL,
+                                                  GameConfig.SAND_COL, GameConfig.GRASS_COL}; // Colours indexed by ordinal.
+
+    // Rectangle of map grid tiles to act upon (e.g., generate terrain, or spawn objects).
+    private interface MapRegionAction {
+        void apply(int col, int row, int width, int height);
+    }
 
 
     // ########################################################################
@@ -33,12 +71,44 @@ public class Map {
         mapGridWidth = (GameConfig.CANVAS_WIDTH / GameConfig.MAP_TILE_SIZE) + buffer;
         mapGridHeight = (GameConfig.CANVAS_HEIGHT / GameConfig.MAP_TILE_SIZE) + buffer;
 
-        // Create the 2D map grid.
-        mapGrid = new GameConfig.Terrain[mapGridWidth][mapGridHeight];
+        renderer = GameConfig.MAP_RENDERER;
+
+        // Create the 2D map grid, which is filled from the terrain cache.
+        noise = new MapNoise(GameConfig.MAP_SEED, GameConfig.MAP_SCALE);
+        terrainCache = new MapTerrainCache(this);
+        terrainPrefetcher = new MapTerrainPrefetcher(this);
+        this.initPregenRegion();
+        terrainCache.setPregenRegion(pregenRegion);
+        mapGrid = new byte[mapGridWidth * mapGridHeight];
+        terrainIndex = new MapTerrainIndex(mapGrid.length, TERRAINS.length);
+        landBits = new long[(mapGrid.length + 63) >> 6];
+        distanceField = new MapDistanceField(this, GameConfig.MAP_DIST_FIELD_RANGE);
+        regionLabels = new MapRegionLabels(this, GameConfig.MAP_REGION_NODES_PER_SLOT);
+        pathfinder = new MapPathfinder(this);
+        flowField = new MapFlowField(this);
+        // Chunks are keyed by noise tile (xTOff + col), which leads the world tile of the same column by half the buffer.
+        minimap = gameState != null ? new MapMinimap(this, GameConfig.MINIMAP_WORLD_CHUNKS, GameConfig.MINIMAP_LEVELS, buffer / 2) : null;
         this.generateMap();
 
-        // Spawn in the game objects required at game start.
-        this.mapStartSpawn();
+        // Spawn in the game objects required at game start (unless the map is a terrain-only view without a game state).
+        spawnRegistry = new MapSpawnRegistry(GameConfig.SPAWN_REGISTRY_CAPACITY, GameConfig.SPAWN_REGISTRY_KEEP_DIST);
+        spawnRegistry.setWindow(xTOff, yTOff, mapGridWidth, mapGridHeight);
+        if (gameState != null) this.mapStartSpawn();
+
+    }
+
+
+    private void initPregenRegion() {
+
+        if (GameConfig.MAP_PREGEN_RADIUS <= 0 || pregenRegion != null) return; // Disabled, or already pre-generated.
+
+        // Pre-generate a square region of chunks around the origin, in parallel.
+        int radius = GameConfig.MAP_PREGEN_RADIUS;
+        pregenRegion = new MapRegionGenerator(this);
+        pregenRegion.generate(-radius, -radius, 2 * radius, 2 * radius, GameConfig.MAP_PREGEN_THREADS);
+
+        println("Pre-generated " + pregenRegion.getNumTiles() + " tiles in " + pregenRegion.getGenerationMillis() +
+                "ms using " + pregenRegion.getNumThreads() + " threads (" + (long) pregenRegion.getTilesPerSecond() + " tiles/sec).");
 
     }
 
@@ -49,41 +119,151 @@ public class Map {
 
     public void generateMap() {
 
-        // Loop over all tiles in the map grid and assign terrain.
-        for (int x = 0; x < mapGridWidth; x++) {
-            for (int y = 0; y < mapGridHeight; y++) {
-                mapGrid[x][y] = generateTerrain(x, y);
+        // Align the ring buffer with the current terrain offset, then assign terrain to all tiles in the map grid.
+        mapGridXSlotOff = Math.floorMod(xTOff, mapGridWidth);
+        mapGridYSlotOff = Math.floorMod(yTOff, mapGridHeight);
+
+        this.generateExposedRegions(mapGridWidth, mapGridHeight); // Panning by a whole grid exposes every tile.
+
+    }
+
+    private void scrollMap(int xTDelta, int yTDelta) {
+
+        // Panning by a whole grid or more leaves no tiles to re-use, so simply re-generate everything.
+        if (abs(xTDelta) >= mapGridWidth || abs(yTDelta) >= mapGridHeight) {
+            this.generateMap();
+            return;
+        }
+
+        // Rotate the ring buffer so that col/row 0 refers to the tile at the new terrain offset.
+        mapGridXSlotOff = Math.floorMod(mapGridXSlotOff + xTDelta, mapGridWidth);
+        mapGridYSlotOff = Math.floorMod(mapGridYSlotOff + yTDelta, mapGridHeight);
+
+        // Only the newly exposed tiles require terrain to be generated.
+        this.generateExposedRegions(xTDelta, yTDelta);
+
+    }
+
+    private void generateExposedRegions(int xTDelta, int yTDelta) {
+
+        // Terrain is copied into every exposed rectangle before any of them are labelled or drawn, as the structures
+        // derived from terrain look across the edges of a rectangle (e.g., into the other strip of a diagonal pan).
+        this.forEachExposedRegion(xTDelta, yTDelta, this::copyMapRegion);
+        this.forEachExposedRegion(xTDelta, yTDelta, regionLabels::reset);
+        this.forEachExposedRegion(xTDelta, yTDelta, this::updateMapRegion);
+
+    }
+
+    private void forEachExposedRegion(int xTDelta, int yTDelta, MapRegionAction action) {
+
+        // Panning by a whole grid or more exposes every tile.
+        if (abs(xTDelta) >= mapGridWidth || abs(yTDelta) >= mapGridHeight) {
+            action.apply(0, 0, mapGridWidth, mapGridHeight);
+            return;
+        }
+
+        // Newly exposed columns (full height) and rows (remaining width) after the given pan.
+        // Diagonal pans expose both, so the rows skip the columns already given to avoid visiting the corner twice.
+        int newColStart = (xTDelta > 0) ? mapGridWidth - xTDelta : 0;
+        int newColEnd = (xTDelta > 0) ? mapGridWidth : -xTDelta;
+        if (newColEnd > newColStart) action.apply(newColStart, 0, newColEnd - newColStart, mapGridHeight);
+
+        int oldColStart = (xTDelta > 0) ? 0 : newColEnd;
+        int oldColEnd = (xTDelta > 0) ? newColStart : mapGridWidth;
+        if (yTDelta > 0) action.apply(oldColStart, mapGridHeight - yTDelta, oldColEnd - oldColStart, yTDelta);
+        else if (yTDelta < 0) action.apply(oldColStart, 0, oldColEnd - oldColStart, -yTDelta);
+
+    }
+
+    private void copyMapRegion(int col, int row, int width, int height) {
+
+        // Terrain is copied from cached chunks, so work out the range of terrain tiles covered by the given rectangle.
+        int chunkSize = terrainCache.getChunkSize();
+        int tileXStart = xTOff + col, tileXEnd = tileXStart + width;
+        int tileYStart = yTOff + row, tileYEnd = tileYStart + height;
+
+        // Loop over the chunks overlapping the rectangle and copy their terrain into the slots of the overlapping tiles.
+        for (int chunkY = Math.floorDiv(tileYStart, chunkSize); chunkY * chunkSize < tileYEnd; chunkY++) {
+            for (int chunkX = Math.floorDiv(tileXStart, chunkSize); chunkX * chunkSize < tileXEnd; chunkX++) {
+
+                byte[] chunk = terrainCache.getChunk(chunkX, chunkY);
+                if (minimap != null) minimap.addChunk(chunkX, chunkY, chunk); // Explored chunks join the minimap once.
+
+                int chunkTileX = chunkX * chunkSize, chunkTileY = chunkY * chunkSize;
+                int xStart = max(tileXStart, chunkTileX), xEnd = min(tileXEnd, chunkTileX + chunkSize);
+                int yStart = max(tileYStart, chunkTileY), yEnd = min(tileYEnd, chunkTileY + chunkSize);
+
+                for (int tileY = yStart; tileY < yEnd; tileY++) {
+                    int rowStart = this.getMapGridYSlot(tileY - yTOff) * mapGridWidth;
+                    int chunkRowStart = (tileY - chunkTileY) * chunkSize;
+                    for (int tileX = xStart; tileX < xEnd; tileX++) {
+                        int slot = rowStart + this.getMapGridXSlot(tileX - xTOff);
+                        byte terrain = chunk[chunkRowStart + (tileX - chunkTileX)];
+                        terrainIndex.move(slot, mapGrid[slot], terrain); // Keep the slot listed under its terrain.
+                        mapGrid[slot] = terrain;
+                        // Keep the land bit of the slot in step with its terrain.
+                        if (isLand(terrain)) landBits[slot >> 6] |= 1L << slot;
+                        else landBits[slot >> 6] &= ~(1L << slot);
+                    }
+                }
+
             }
         }
 
     }
 
-    public GameConfig.Terrain generateTerrain(int x, int y) {
+    private void updateMapRegion(int col, int row, int width, int height) {
 
-        // Create noise value.
-        float noiseValue = Game.sketch.noise((xTOff + x) * GameConfig.MAP_SCALE, (yTOff + y) * GameConfig.MAP_SCALE);
+        this.rasteriseMapRegion(col, row, width, height); // Newly generated tiles also need drawing to the terrain layer.
+        distanceField.update(col, row, width, height); // Distances to terrain change within range of the new tiles.
+        regionLabels.join(col, row, width, height); // New tiles join the islands and bodies of water they touch.
+        pathfinder.invalidate(col, row, width, height); // Clusters overlapping the new tiles are rebuilt before the next search.
+        flowField.clear(col, row, width, height); // New tiles do not flow anywhere until the field is next updated.
 
-        // Assign terrain based on noise value.
-        if (noiseValue < 0.45) return GameConfig.Terrain.DEEP_WATER;
-        else if (noiseValue < 0.6) return GameConfig.Terrain.SHALLOW_WATER;
-        else if (noiseValue < 0.72) return GameConfig.Terrain.SAND;
-        else return GameConfig.Terrain.GRASS;
+    }
 
+    public byte generateTerrainAtTile(int tileX, int tileY) {
+        return classifyTerrain(noise.sample(tileX, tileY)); // Create noise value and assign terrain based on it.
     }
 
-    public void update(float camXPan, float camYPan) {
+    public void generateTerrainRegion(int tileX, int tileY, int width, int height, float[] noiseValues, byte[] terrain) {
+
+        // Batch generate a row-major rectangle of terrain, using the given array as scratch space for noise values.
+        // NOTE: Only reads the (immutable) noise, so this is safe to call from threads other than the animation thread.
+        noise.fillRegion(tileX, tileY, width, height, noiseValues);
+        for (int i = 0; i < width * height; i++) terrain[i] = classifyTerrain(noiseValues[i]);
+
+    }
+
+    public static byte classifyTerrain(float noiseValue) {
 
-        // Update the map based on changes to the game camera.
-        xROff = camXPan % GameConfig.MAP_TILE_SIZE;
-        yROff = camYPan % GameConfig.MAP_TILE_SIZE;
+        // Assign terrain (as its ordinal) based on noise value.
+        if (noiseValue < 0.45) return (byte) GameConfig.Terrain.DEEP_WATER.ordinal();
+        else if (noiseValue < 0.6) return (byte) GameConfig.Terrain.SHALLOW_WATER.ordinal();
+        else if (noiseValue < 0.72) return (byte) GameConfig.Terrain.SAND.ordinal();
+        else return (byte) GameConfig.Terrain.GRASS.ordinal();
 
+    }
+
+    public void update(float camXPan, float camYPan) {
+
+        // Update the map based on changes to the game camera (panning within a tile is left to the camera transform).
         xTOff = (int) camXPan / GameConfig.MAP_TILE_SIZE;
         yTOff = (int) camYPan / GameConfig.MAP_TILE_SIZE;
 
+        // Swap in any chunks prefetched in the background since the last update.
+        terrainPrefetcher.drainReady(terrainCache);
+
         // Need to regenerate the map if we have panned more than a tile's difference from previous.
         if ((xTOff - xTOffPrev) != 0 || (yTOff - yTOffPrev) != 0) {
-            this.generateMap(); // Need to re-generate the map.
-            this.mapUpdateSpawn(); // Need to add new enemies for updated parts of the map.
+
+            // Need to generate the newly exposed parts of the map; any chunk not prefetched in time is generated here.
+            long chunkMissesPrev = terrainCache.getChunkMisses();
+            this.scrollMap(xTOff - xTOffPrev, yTOff - yTOffPrev);
+            lateChunkGenerations += terrainCache.getChunkMisses() - chunkMissesPrev;
+
+            spawnRegistry.setWindow(xTOff, yTOff, mapGridWidth, mapGridHeight); // Cleared spawns are kept around the map grid.
+            this.mapUpdateSpawn(xTOff - xTOffPrev, yTOff - yTOffPrev); // Need to add new enemies for updated parts of the map.
         }
 
         xTOffPrev = xTOff;
@@ -91,110 +271,185 @@ public class Map {
 
     }
 
+    public void prefetchTerrain(float camXPanDir, float camYPanDir) {
 
-    // ########################################################################
-    // Map Spawning Methods:
-    // ########################################################################
+        if (camXPanDir == 0 && camYPanDir == 0) return; // Nothing to prefetch ahead of a still camera.
 
-    private void mapStartSpawn() {
+        // Range of chunks currently covered by the map grid.
+        int chunkSize = terrainCache.getChunkSize();
+        int chunkXStart = Math.floorDiv(xTOff, chunkSize), chunkXEnd = Math.floorDiv(xTOff + mapGridWidth - 1, chunkSize);
+        int chunkYStart = Math.floorDiv(yTOff, chunkSize), chunkYEnd = Math.floorDiv(yTOff + mapGridHeight - 1, chunkSize);
 
-        // This method will loop over tiles in the map and spawn game objects.
-        for (int x = 0; x < mapGridWidth; x++) {
-            for (int y = 0; y < mapGridHeight; y++) {
-                this.spawnObject(x, y); // On-screen object spawning at the current tile.
+        // Extend that range by the prefetch distance in the direction(s) of the pan.
+        int dist = GameConfig.MAP_PREFETCH_DIST;
+        if (camXPanDir > 0) chunkXEnd += dist;
+        else if (camXPanDir < 0) chunkXStart -= dist;
+        if (camYPanDir > 0) chunkYEnd += dist;
+        else if (camYPanDir < 0) chunkYStart -= dist;
+
+        // Request the chunks in the strips ahead of the grid; chunks within the grid itself are already cached.
+        if (camXPanDir != 0) {
+            int stripStart = (camXPanDir > 0) ? chunkXEnd - dist + 1 : chunkXStart;
+            for (int chunkX = stripStart; chunkX < stripStart + dist; chunkX++) {
+                for (int chunkY = chunkYStart; chunkY <= chunkYEnd; chunkY++) this.prefetchChunk(chunkX, chunkY);
+            }
+        }
+        if (camYPanDir != 0) {
+            int stripStart = (camYPanDir > 0) ? chunkYEnd - dist + 1 : chunkYStart;
+            for (int chunkY = stripStart; chunkY < stripStart + dist; chunkY++) {
+                for (int chunkX = chunkXStart; chunkX <= chunkXEnd; chunkX++) this.prefetchChunk(chunkX, chunkY);
             }
         }
 
     }
 
-    private void mapUpdateSpawn() {
+    private void prefetchChunk(int chunkX, int chunkY) {
+
+        long chunkKey = packCoords(chunkX, chunkY);
+        if (terrainCache.containsChunk(chunkKey) || terrainPrefetcher.isPending(chunkKey)) return; // Already available.
+
+        terrainPrefetcher.request(chunkX, chunkY);
+
+    }
+
+
+    // ########################################################################
+    // Map Spawning Methods:
+    // ########################################################################
+
+    private void mapStartSpawn() {
+        this.spawnMapRegion(0, 0, mapGridWidth, mapGridHeight); // Spawn game objects on all tiles in the map.
+    }
 
-        // This method will loop over new rows of tiles created by panning the map and create spawns.
+    private void mapUpdateSpawn(int xTDelta, int yTDelta) {
+        // Spawn game objects on the tiles exposed by panning the map (on both axes, for diagonal pans).
+        this.forEachExposedRegion(xTDelta, yTDelta, this::spawnMapRegion);
+    }
 
-        // X direction camera panning spawn updates:
-        // Left Pan - Loop over the left-most side of tiles and enact spawning.
-        if ((xTOff - xTOffPrev) < 0) for (int y = 0; y < mapGridHeight; y++) spawnObject(0, y);
-        // Right Pan - Loop over the right-most side of tiles and enact spawning.
-        else if ((xTOff - xTOffPrev) > 0) for (int y = 0; y < mapGridHeight; y++) spawnObject(mapGridWidth - 1, y);
+    private void spawnMapRegion(int col, int row, int width, int height) {
 
-        // Y direction camera panning spawn updates:
-        // Up Pan - Loop over the up-most side of tiles and enact spawning.
-        else if ((yTOff - yTOffPrev) < 0) for (int x = 0; x < mapGridWidth; x++) spawnObject(x, 0);
-        // Down Pan - Loop over the down-most side of tiles and enact spawning.
-        else if ((yTOff - yTOffPrev) > 0) for (int x = 0; x < mapGridWidth; x++) spawnObject(x, mapGridHeight - 1);
+        // This method will loop over the given rectangle of tiles in the map and spawn game objects.
+        for (int x = col; x < col + width; x++) {
+            for (int y = row; y < row + height; y++) {
+                this.spawnObject(x, y); // On-screen object spawning at the current tile.
+            }
+        }
 
     }
 
     private void spawnObject(int mapGridX, int mapGridY) {
 
-        // Determine the position where the game object is to be spawned.
-        PVector posToSpawn = this.getPosAtMapGridCoord(mapGridX, mapGridY); // Position to spawn the object.
-        posToSpawn.x += (float) (GameConfig.MAP_TILE_SIZE / 2);
-        posToSpawn.y += (float) (GameConfig.MAP_TILE_SIZE / 2);
+        // World tile of the spawn, whose rolls are always the same, regardless of how the tile came to be on screen.
+        long tileKey = packCoords(xTOff + mapGridX, yTOff + mapGridY);
+
+        // Tiles whose spawn is still in the game, or was cleared by the player, do not spawn again.
+        if (spawnRegistry.isRegistered(tileKey)) return;
 
         // Spawn game object according to terrain type at the spawn location.
         // NOTE: Not spawning enemies on the grass - there for diversity.
-        GameConfig.Terrain terrain = mapGrid[mapGridX][mapGridY];
-        switch (terrain) {
-            case DEEP_WATER -> this.spawnObjectDeepWater(posToSpawn);
-            case SHALLOW_WATER -> this.spawnObjectShallowWater(posToSpawn);
-            case SAND -> this.spawnObjectSand(posToSpawn);
-        }
+        GameConfig.Terrain terrain = TERRAINS[this.getTerrainOrdinalAtMapGridCoord(mapGridX, mapGridY)];
+        boolean spawned = switch (terrain) {
+            case DEEP_WATER -> this.spawnObjectDeepWater(mapGridX, mapGridY, tileKey);
+            case SHALLOW_WATER -> this.spawnObjectShallowWater(mapGridX, mapGridY, tileKey);
+            case SAND -> this.spawnObjectSand(mapGridX, mapGridY, tileKey);
+            default -> false;
+        };
+
+        if (spawned) spawnRegistry.markLive(tileKey); // Tile cannot spawn again until its object is released.
 
     }
 
-    private void spawnObjectDeepWater(PVector posToSpawn) {
+    private boolean spawnObjectDeepWater(int mapGridX, int mapGridY, long tileKey) {
 
         // Definitely spawning an object, just need to decide which.
         // Deep Water Objects: Enemy Ships,
 
-        float randProb = Game.sketch.random(0, 1);
+        float randProb = spawnRoll(tileKey, 0);
         if (randProb < GameConfig.SPAWN_PROB_SHARK) {
-            gameState.addShark(posToSpawn); // Spawn enemy shark.
-            return;
+            gameState.addShark(this.getSpawnPos(mapGridX, mapGridY), tileKey); // Spawn enemy shark.
+            return true;
         }
 
-        randProb = Game.sketch.random(0, 1);
+        randProb = spawnRoll(tileKey, 1);
         if (randProb < GameConfig.SPAWN_PROB_SHIP_ENEMY) {
-            gameState.addEnemyShip(posToSpawn); // Spawn enemy ship.
-            return;
+            gameState.addEnemyShip(this.getSpawnPos(mapGridX, mapGridY), tileKey); // Spawn enemy ship.
+            return true;
         }
 
-        randProb = Game.sketch.random(0, 1);
+        randProb = spawnRoll(tileKey, 2);
         if (randProb < GameConfig.SPAWN_PROB_SIREN) {
-            gameState.addSiren(posToSpawn); // Spawn siren.
-            return;
+            gameState.addSiren(this.getSpawnPos(mapGridX, mapGridY), tileKey); // Spawn siren.
+            return true;
         }
 
+        return false;
+
     }
 
-    private void spawnObjectShallowWater(PVector posToSpawn) {
+    private boolean spawnObjectShallowWater(int mapGridX, int mapGridY, long tileKey) {
 
         // Definitely spawning an object, just need to decide which.
         // Shallow Water Objects: Loot,
 
-        float randProb = Game.sketch.random(0, 1);
+        float randProb = spawnRoll(tileKey, 0);
         if (randProb < GameConfig.SPAWN_PROB_LOOT) {
-            gameState.addLoot(posToSpawn); // Add loot to the game at the given location.
-            return;
+            gameState.addLoot(this.getSpawnPos(mapGridX, mapGridY), tileKey); // Add loot to the game at the given location.
+            return true;
         }
 
-        randProb = Game.sketch.random(0, 1);
+        randProb = spawnRoll(tileKey, 1);
         if (randProb < GameConfig.SPAWN_PROB_SIREN) {
-            gameState.addSiren(posToSpawn); // Spawn siren.
-            return;
+            gameState.addSiren(this.getSpawnPos(mapGridX, mapGridY), tileKey); // Spawn siren.
+            return true;
         }
 
+        return false;
+
     }
 
-    private void spawnObjectSand(PVector posToSpawn) {
+    private boolean spawnObjectSand(int mapGridX, int mapGridY, long tileKey) {
 
         // Definitely spawning an object, just need to decide which.
-        // Sand Objects: Forts
+        // Sand Objects: Forts (only on islands big enough to be worth defending).
+
+        float randProb = spawnRoll(tileKey, 0);
+        int islandTiles = regionLabels.getRegionSize(mapGridX, mapGridY);
+        if (randProb < GameConfig.SPAWN_PROB_FORT && islandTiles >= GameConfig.SPAWN_FORT_MIN_ISLAND_TILES) {
+            gameState.addFort(this.getSpawnPos(mapGridX, mapGridY), tileKey); // Spawn fort.
+            return true;
+        }
+
+        return false;
+
+    }
+
+    private PVector getSpawnPos(int mapGridX, int mapGridY) {
+
+        // Centre of the spawn tile, only built once a roll has succeeded (most exposed tiles spawn nothing).
+        return new PVector(this.tileX(mapGridX) + (float) (GameConfig.MAP_TILE_SIZE / 2),
+                this.tileY(mapGridY) + (float) (GameConfig.MAP_TILE_SIZE / 2));
 
-        float randProb = Game.sketch.random(0, 1);
+    }
+
+    public void releaseSpawn(long tileKey, boolean cleared) {
+
+        if (tileKey == MapSpawnRegistry.NO_TILE) return; // Object was not spawned by the map.
 
-        if (randProb < GameConfig.SPAWN_PROB_FORT) gameState.addFort(posToSpawn); // Spawn fort.
+        // Cleared spawns (i.e., killed or collected) are remembered, whereas de-spawned ones may spawn again when revisited.
+        if (cleared) spawnRegistry.markCleared(tileKey);
+        else spawnRegistry.release(tileKey);
+
+    }
+
+    static float spawnRoll(long tileKey, int roll) {
+
+        // Stateless hash of the packed world tile, seed, and roll number (i.e., a SplitMix64 finaliser), so no RNG state is used.
+        long hash = tileKey ^ (GameConfig.RAND_SEED * 0x9E3779B97F4A7C15L) ^ ((long) roll << 58);
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+
+        return (hash >>> 40) * 0x1.0p-24f; // Top 24 bits as a uniform float in [0, 1).
 
     }
 
@@ -205,306 +460,454 @@ public class Map {
 
     public void display() {
 
-        Game.sketch.noStroke(); // Edges of tiles are not visible.
+        // The terrain layer is created (and fully rasterised) the first time the map is displayed.
+        if (terrainLayer == null) {
+            terrainLayer = this.createTerrainLayer(renderer);
+            this.rasteriseMapRegion(0, 0, mapGridWidth, mapGridHeight);
+        }
 
-        // Display all tiles within the grid as a map.
-        for (int x = 0; x < mapGridWidth; x++) {
-            for (int y = 0; y < mapGridHeight; y++) {
+        // The layer is laid out by ring buffer slot, so the slot holding col/row 0 is split from the wrapped-around slots.
+        int tileSize = GameConfig.MAP_TILE_SIZE;
+        int splitX = (mapGridWidth - mapGridXSlotOff) * tileSize; // Width of the layer from the slot of col 0 to the end.
+        int splitY = (mapGridHeight - mapGridYSlotOff) * tileSize; // Height of the layer from the slot of row 0 to the end.
+        int layerWidth = mapGridWidth * tileSize, layerHeight = mapGridHeight * tileSize;
 
-                // Get colour to show for the current tile in the map.
-                int terrainColor = getTerrainColour(mapGrid[x][y]);
-                Game.sketch.fill(terrainColor);
+        // Blit the layer with col/row 0 at their world position, wrapping the ring buffer in up to four parts.
+        float originX = this.tileX(0), originY = this.tileY(0);
+        this.blitTerrainLayer(originX, originY, layerWidth - splitX, layerHeight - splitY, splitX, splitY);
+        this.blitTerrainLayer(originX + splitX, originY, 0, layerHeight - splitY, layerWidth - splitX, splitY);
+        this.blitTerrainLayer(originX, originY + splitY, layerWidth - splitX, 0, splitX, layerHeight - splitY);
+        this.blitTerrainLayer(originX + splitX, originY + splitY, 0, 0, layerWidth - splitX, layerHeight - splitY);
 
-                // Show tile on the canvas.
-                PVector mapGridCoords = getPosAtMapGridCoord(x, y);
-                Game.sketch.rect(mapGridCoords.x, mapGridCoords.y, GameConfig.MAP_TILE_SIZE, GameConfig.MAP_TILE_SIZE);
+    }
 
-            }
-        }
+    private void blitTerrainLayer(float x, float y, int layerX, int layerY, int width, int height) {
+        // Draw the given part of the terrain layer at the given world position (if it is not empty).
+        if (width > 0 && height > 0) Game.sketch.image(terrainLayer, x, y, width, height, layerX, layerY, layerX + width, layerY + height);
+    }
 
+    private PImage createTerrainLayer(GameConfig.MapRenderer renderer) {
+        int width = mapGridWidth * GameConfig.MAP_TILE_SIZE, height = mapGridHeight * GameConfig.MAP_TILE_SIZE;
+        // Shapes are drawn through a renderer, whereas pixels are written straight into a plain image.
+        if (renderer == GameConfig.MapRenderer.SHAPES) return Game.sketch.createGraphics(width, height);
+        else return Game.sketch.createImage(width, height, RGB);
     }
 
-    public int getTerrainColour(GameConfig.Terrain terrain) {
+    private void rasteriseMapRegion(int col, int row, int width, int height) {
 
-        int terrainColor = -1;
+        if (terrainLayer == null) return; // Nothing to update until the layer has been created.
 
-        // Create a colour for the given terrain.
-        switch (terrain) {
-            case DEEP_WATER -> terrainColor = GameConfig.DEEP_WATER_COL;
-            case SHALLOW_WATER -> terrainColor = GameConfig.SHALLOW_WATER_COL;
-            case SAND -> terrainColor = GameConfig.SAND_COL;
-            case GRASS -> terrainColor = GameConfig.GRASS_COL;
+        switch (renderer) {
+            case SHAPES -> this.rasteriseMapRegionShapes((PGraphics) terrainLayer, col, row, width, height);
+            case PIXELS -> this.rasteriseMapRegionPixels(terrainLayer, col, row, width, height);
         }
 
-        return terrainColor;
-
     }
 
-    // ########################################################################
-    // Map Collision Methods:
-    // ########################################################################
-
-    private boolean collidesWithTerrainType(boolean landCheck, int x, int y) {
+    private void rasteriseMapRegionShapes(PGraphics layer, int col, int row, int width, int height) {
 
-        boolean collision;
+        layer.beginDraw();
+        layer.noStroke(); // Edges of tiles are not visible.
 
-        if (landCheck) { // Check collide with land.
-            collision = isLandAtPos(x, y);
-        } else { // Check collide with water.
-            collision = isWaterAtPos(x, y);
+        // Draw the given rectangle of map grid tiles at the position of the ring buffer slots they occupy.
+        for (int y = row; y < row + height; y++) {
+            int ySlot = this.getMapGridYSlot(y);
+            for (int x = col; x < col + width; x++) {
+                int xSlot = this.getMapGridXSlot(x);
+                layer.fill(TERRAIN_COLOURS[mapGrid[(ySlot * mapGridWidth) + xSlot]]);
+                layer.rect(xSlot * GameConfig.MAP_TILE_SIZE, ySlot * GameConfig.MAP_TILE_SIZE,
+                           GameConfig.MAP_TILE_SIZE, GameConfig.MAP_TILE_SIZE);
+            }
         }
 
-        return collision;
+        layer.endDraw();
 
     }
 
-    // W
-    // W* ---
-    // W
-    public float collidesXLeft(ObjGameGeneric obj, boolean landCheck) {
-
-        int charX = (int) obj.getPosX();
-        int charY = (int) obj.getPosY();
+    private void rasteriseMapRegionPixels(PImage layer, int col, int row, int width, int height) {
 
-        int[] gridCoords = this.getMapGridCoordAtPos(charX, charY);
-        int charCol = gridCoords[0] + 1; // For reasons unknown, +1 is required here.
-        int charRow = gridCoords[1];
+        layer.loadPixels();
 
-        for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+        // Rows of tiles cover disjoint rows of pixels, so they are filled across cores (when there are enough tiles).
+        IntStream rows = IntStream.range(row, row + height);
+        if (width * height >= GameConfig.MAP_RASTER_PARALLEL_TILES) rows = rows.parallel();
+        rows.forEach(y -> this.rasteriseMapRowPixels(layer.pixels, layer.width, y, col, width));
 
-            int col = charCol - 1;
-            int row = charRow + rowOffset;
+        // Mark only the re-drawn slots as modified, once rather than per tile; the rectangle of slots is split in up to
+        // four parts where it wraps around the ring buffer.
+        int tileSize = GameConfig.MAP_TILE_SIZE;
+        int xSlot = this.getMapGridXSlot(col), ySlot = this.getMapGridYSlot(row);
+        int xRun = min(width, mapGridWidth - xSlot), yRun = min(height, mapGridHeight - ySlot); // Slots before wrapping.
+        layer.updatePixels(xSlot * tileSize, ySlot * tileSize, xRun * tileSize, yRun * tileSize);
+        if (xRun < width) layer.updatePixels(0, ySlot * tileSize, (width - xRun) * tileSize, yRun * tileSize);
+        if (yRun < height) layer.updatePixels(xSlot * tileSize, 0, xRun * tileSize, (height - yRun) * tileSize);
+        if (xRun < width && yRun < height) layer.updatePixels(0, 0, (width - xRun) * tileSize, (height - yRun) * tileSize);
 
-            if (collidesWithTerrainType(landCheck, (int) obj.getPosX(), (int) obj.getPosY())) {
+    }
 
-                PVector blockPos = this.getPosAtMapGridCoord(col, row);
+    private void rasteriseMapRowPixels(int[] pixels, int layerWidth, int row, int col, int width) {
 
-                if (blockPos.x - charX > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (charX - (blockPos.x + GameConfig.MAP_TILE_SIZE) > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (blockPos.y - charY > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (charY - (blockPos.y + GameConfig.MAP_TILE_SIZE) > (float) (obj.getDiameter() / 2))
-                    continue;
+        int tileSize = GameConfig.MAP_TILE_SIZE;
+        int ySlot = this.getMapGridYSlot(row);
+        int firstPixel = ySlot * tileSize * layerWidth; // First pixel of the row of slots.
 
-                return (blockPos.x + GameConfig.MAP_TILE_SIZE + (float) (obj.getDiameter() / 2));
+        // Fill the first line of pixels of each tile in the row.
+        for (int x = col; x < col + width; x++) {
+            int xSlot = this.getMapGridXSlot(x);
+            int pixel = firstPixel + (xSlot * tileSize);
+            Arrays.fill(pixels, pixel, pixel + tileSize, TERRAIN_COLOURS[mapGrid[(ySlot * mapGridWidth) + xSlot]]);
+        }
 
+        // The remaining lines of each tile are copies of the first; only the filled slots are copied, in two runs if the
+        // columns wrap around the ring buffer.
+        int runStart = firstPixel + (this.getMapGridXSlot(col) * tileSize);
+        int runSlots = min(width, mapGridWidth - this.getMapGridXSlot(col));
+        for (int line = 1; line < tileSize; line++) {
+            System.arraycopy(pixels, runStart, pixels, runStart + (line * layerWidth), runSlots * tileSize);
+            if (runSlots < width) {
+                System.arraycopy(pixels, firstPixel, pixels, firstPixel + (line * layerWidth), (width - runSlots) * tileSize);
             }
-
         }
 
-        return -1;
-
     }
 
-    //   W
-    //  *W ---
-    //   W
-    public float collidesXRight(ObjGameGeneric obj, boolean landCheck) {
+    public void benchmarkRenderers() {
 
-        int charX = (int) obj.getPosX();
-        int charY = (int) obj.getPosY();
+        // Time full rasterisations of the map grid into a separate layer per backend (leaving the displayed layer alone).
+        GameConfig.MapRenderer[] renderers = GameConfig.MapRenderer.values();
+        int iterations = GameConfig.MAP_RENDER_BENCHMARK_ITERATIONS;
+        rendererBenchmarkMillis = new float[renderers.length];
 
-        int[] gridCoords = this.getMapGridCoordAtPos(charX, charY);
-        int charCol = gridCoords[0] - 1; // For reasons unknown, -1 is required here.
-        int charRow = gridCoords[1];
+        for (GameConfig.MapRenderer benchmarked : renderers) {
 
-        for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+            PImage layer = this.createTerrainLayer(benchmarked);
 
-            int col = charCol + 1;
-            int row = charRow + rowOffset;
+            // The first rasterisation warms up the backend, so is not timed.
+            for (int i = -1; i < iterations; i++) {
+                long startTime = System.nanoTime();
+                switch (benchmarked) {
+                    case SHAPES -> this.rasteriseMapRegionShapes((PGraphics) layer, 0, 0, mapGridWidth, mapGridHeight);
+                    case PIXELS -> this.rasteriseMapRegionPixels(layer, 0, 0, mapGridWidth, mapGridHeight);
+                }
+                if (i >= 0) rendererBenchmarkMillis[benchmarked.ordinal()] += (System.nanoTime() - startTime) / 1e6f / iterations;
+            }
 
-            if (collidesWithTerrainType(landCheck, charX, charY)) {
+            println("MAP RENDERER " + benchmarked + ": " + nf(rendererBenchmarkMillis[benchmarked.ordinal()], 0, 2) +
+                    " ms per full rasterisation of " + mapGridWidth + "x" + mapGridHeight + " tiles");
 
-                PVector blockPos = this.getPosAtMapGridCoord(col, row);
+        }
 
-                if (blockPos.x - charX > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (charX - (blockPos.x + GameConfig.MAP_TILE_SIZE) > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (blockPos.y - charY > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (charY - (blockPos.y + GameConfig.MAP_TILE_SIZE) > (float) (obj.getDiameter() / 2))
-                    continue;
+    }
 
-                return (blockPos.x - (float) (obj.getDiameter() / 2));
+    public void benchmarkCoordConversion() {
 
+        // Convert every tile of the map grid to a position and back, with the allocating and the primitive conversions,
+        // measuring the garbage each creates on the draw thread.
+        if (!GameState.isAllocationMeasured()) {
+            println("MAP CO-ORDINATE CONVERSION: allocation is not reported by this JVM, skipping benchmark");
+            return;
+        }
+        int iterations = GameConfig.MAP_COORD_BENCHMARK_ITERATIONS;
+        long checksum = 0; // Consumes the results, so the conversions cannot be optimised away.
+
+        long startBytes = GameState.getThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            for (int row = 0; row < mapGridHeight; row++) {
+                for (int col = 0; col < mapGridWidth; col++) {
+                    PVector pos = this.getPosAtMapGridCoord(col, row);
+                    int[] coords = this.getMapGridCoordAtPos(pos.x, pos.y);
+                    checksum += coords[0] + coords[1];
+                }
             }
+        }
+        long allocatingBytes = GameState.getThreadAllocatedBytes() - startBytes;
 
+        startBytes = GameState.getThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            for (int row = 0; row < mapGridHeight; row++) {
+                for (int col = 0; col < mapGridWidth; col++) {
+                    checksum += this.tileColFloor(this.tileX(col)) + this.tileRowFloor(this.tileY(row));
+                }
+            }
         }
+        long primitiveBytes = GameState.getThreadAllocatedBytes() - startBytes;
+
+        long numConversions = (long) iterations * mapGridWidth * mapGridHeight;
+        println("MAP CO-ORDINATE CONVERSION (" + numConversions + " round trips, checksum " + checksum + "): " +
+                "ALLOCATING " + (allocatingBytes / numConversions) + " bytes/call, PRIMITIVE " + (primitiveBytes / numConversions) + " bytes/call");
 
-        return -1;
+    }
 
+    public int getTerrainColour(GameConfig.Terrain terrain) {
+        return TERRAIN_COLOURS[terrain.ordinal()]; // Colour for the given terrain.
     }
 
-    // WWW
-    //  * ---
-    public float collidesYUp(ObjGameGeneric obj, boolean landCheck) {
+    // ########################################################################
+    // Map Collision Methods:
+    // ########################################################################
+
+    public boolean resolveTerrainCollision(ObjGameGeneric obj, boolean solidLand) {
 
-        int charX = (int) obj.getPosX();
-        int charY = (int) obj.getPosY();
+        // Push the object's circle out of every solid tile it overlaps (land tiles if solidLand, otherwise water tiles).
+        // Returns whether the object collided (and so was pushed).
 
-        int[] gridCoords = this.getMapGridCoordAtPos(charX, charY);
-        int charCol = gridCoords[0];
-        int charRow = gridCoords[1] + 1; // For reasons unknown, +1 is required here.
+        float radius = (float) obj.getDiameter() / 2;
+        float x = obj.getPosX();
+        float y = obj.getPosY();
+        long solidFlip = solidLand ? 0 : 1; // Water is solid where the land bit is clear.
 
-        for (int colOffset = -1; colOffset <= 1; colOffset++) {
+        // Range of tiles overlapped by the bounding box of the circle (clamped to the map; tiles outside are not solid).
+        int colStart = max(this.tileColFloor(x - radius), 0), colEnd = min(this.tileColFloor(x + radius), mapGridWidth - 1);
+        int rowStart = max(this.tileRowFloor(y - radius), 0), rowEnd = min(this.tileRowFloor(y + radius), mapGridHeight - 1);
 
-            int col = charCol + colOffset;
-            int row = charRow - 1;
+        boolean collided = false;
 
-            if (collidesWithTerrainType(landCheck, (int) obj.getPosX(), (int) obj.getPosY())) {
+        for (int row = rowStart; row <= rowEnd; row++) {
+            int rowSlotStart = this.getMapGridYSlot(row) * mapGridWidth;
+            for (int col = colStart; col <= colEnd; col++) {
 
-                PVector blockPos = this.getPosAtMapGridCoord(col, row);
+                int slot = rowSlotStart + this.getMapGridXSlot(col);
+                if ((((landBits[slot >> 6] >>> slot) & 1) ^ solidFlip) == 0) continue; // Tile is not solid.
 
-                if (blockPos.x - charX > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (charX - (blockPos.x + GameConfig.MAP_TILE_SIZE) > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (blockPos.y - charY > ((float) obj.getDiameter() / 2))
-                    continue;
-                if (charY - (blockPos.y + GameConfig.MAP_TILE_SIZE) > (float) (obj.getDiameter() / 2))
-                    continue;
+                // Closest point of the tile to the centre of the circle.
+                float tileLeft = this.tileX(col), tileTop = this.tileY(row);
+                float dx = x - constrain(x, tileLeft, tileLeft + GameConfig.MAP_TILE_SIZE);
+                float dy = y - constrain(y, tileTop, tileTop + GameConfig.MAP_TILE_SIZE);
+                float distSq = (dx * dx) + (dy * dy);
 
-                return (blockPos.y + GameConfig.MAP_TILE_SIZE + (float) (obj.getDiameter() / 2));
+                if (distSq >= radius * radius) continue; // Circle does not reach the tile.
+
+                if (distSq > 0) {
+
+                    // Centre is outside the tile, so push it away from the closest point until the circle only touches.
+                    float dist = sqrt(distSq);
+                    float push = (radius - dist) / dist;
+                    x += dx * push;
+                    y += dy * push;
+
+                } else {
+
+                    // Centre is inside the tile, so push it out of the nearest edge.
+                    float pushLeft = tileLeft - radius - x, pushRight = tileLeft + GameConfig.MAP_TILE_SIZE + radius - x;
+                    float pushUp = tileTop - radius - y, pushDown = tileTop + GameConfig.MAP_TILE_SIZE + radius - y;
+                    float pushX = (-pushLeft < pushRight) ? pushLeft : pushRight;
+                    float pushY = (-pushUp < pushDown) ? pushUp : pushDown;
+
+                    if (abs(pushX) < abs(pushY)) x += pushX;
+                    else y += pushY;
+
+                }
+
+                collided = true;
 
             }
+        }
 
+        if (collided) {
+            obj.setPosX(x);
+            obj.setPosY(y);
         }
 
-        return -1;
+        return collided;
 
     }
 
-    //  *
-    // WWW ---
-    public float collidesYDown(ObjGameGeneric obj, boolean landCheck) {
-
-        int charX = (int) obj.getPosX();
-        int charY = (int) obj.getPosY();
+    // ########################################################################
+    // Map Utility Methods:
+    // ########################################################################
 
-        int[] gridCoords = this.getMapGridCoordAtPos(charX, charY);
-        int charCol = gridCoords[0];
-        int charRow = gridCoords[1] - 1; // For reasons unknown, -1 is required here.
+    public PVector getPlayerRandPos(GameConfig.Terrain terrainType) {
 
-        for (int colOffset = -1; colOffset <= 1; colOffset++) {
+        // Given a terrain type, get the position of a random tile of that type in the map.
+        // Tiles are picked from those indexed under the terrain, so every pick is of the right terrain, and the number of
+        // picks is capped; if none pass the filters, fall back to the first on-screen pick, or any pick at all.
 
-            int col = charCol + colOffset;
-            int row = charRow + 1;
+        int terrainOrdinal = terrainType.ordinal();
+        int numSlots = terrainIndex.getNumSlots(terrainOrdinal);
+        PVector fallbackPos = null;
+        boolean fallbackOnScreen = false;
 
-            if (collidesWithTerrainType(landCheck, (int) obj.getPosX(), (int) obj.getPosY())) {
+        for (int i = 0; i < GameConfig.MAP_RESPAWN_SAMPLES && numSlots > 0; i++) {
 
-                PVector blockPos = this.getPosAtMapGridCoord(col, row);
+            int slot = terrainIndex.getSlot(terrainOrdinal, (int) Game.sketch.random(0, numSlots));
+            int tileX = Math.floorMod((slot % mapGridWidth) - mapGridXSlotOff, mapGridWidth);
+            int tileY = Math.floorMod((slot / mapGridWidth) - mapGridYSlotOff, mapGridHeight);
 
-                if (blockPos.x - charX > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (charX - (blockPos.x + GameConfig.MAP_TILE_SIZE) > ((float) obj.getDiameter() / 2))
-                    continue;
-                if (blockPos.y - charY > (float) (obj.getDiameter() / 2))
-                    continue;
-                if (charY - (blockPos.y + GameConfig.MAP_TILE_SIZE) > (float) (obj.getDiameter() / 2))
-                    continue;
+            // Get map position of the tile. Actually return the centre of the tile to avoid tile boundary issues.
+            PVector randPos = this.getPosAtMapGridCoord(tileX, tileY);
+            randPos.x = randPos.x + (float) (GameConfig.MAP_TILE_SIZE / 2);
+            randPos.y = randPos.y + (float) (GameConfig.MAP_TILE_SIZE / 2);
 
-                return (blockPos.y - (float) (obj.getDiameter() / 2));
+            // Game-Play Optimisation: SPawn on screen and at least don't respawn the player by the final boss.
+            // NOTE: May still spawn by other enemies, so further optimisation could be implemented.
+            boolean onScreen = gameState.isOnScreen(randPos.x, randPos.y);
+            if (onScreen && !gameState.getFlagship().isTargetInRange(randPos)) return randPos;
 
+            if (fallbackPos == null || (onScreen && !fallbackOnScreen)) {
+                fallbackPos = randPos;
+                fallbackOnScreen = onScreen;
             }
 
         }
 
-        return -1;
+        // No tiles of the terrain at all, so stay in the centre of the screen.
+        if (fallbackPos == null) fallbackPos = new PVector(gameState.getCamXPan() + (float) GameConfig.CANVAS_WIDTH / 2,
+                                                           gameState.getCamYPan() + (float) GameConfig.CANVAS_HEIGHT / 2);
+
+        return fallbackPos;
 
     }
 
+    public PVector getPosAtMapGridCoord(int col, int row) {
+        return new PVector(this.tileX(col), this.tileY(row)); // Prefer tileX()/tileY() in hot paths; they do not allocate.
+    }
 
-    // ########################################################################
-    // Map Utility Methods:
-    // ########################################################################
+    public float tileX(int col) {
+        return (float) (xTOff + col - buffer / 2) * GameConfig.MAP_TILE_SIZE; // World x of the left edge of the given column.
+    }
 
-    public PVector getPlayerRandPos(GameConfig.Terrain terrainType) {
+    public float tileY(int row) {
+        return (float) (yTOff + row - buffer / 2) * GameConfig.MAP_TILE_SIZE; // World y of the top edge of the given row.
+    }
 
-        // Given a terrain type, get the position of a random tile of that type in the map.
-        // Naive implementation: pick a tile at random, test for the terrain, return pos if satisfied, otherwise generate again.
+    public int worldCol(int col) {
+        return xTOff + col - (buffer / 2); // World tile column of the given map grid column.
+    }
+
+    public int worldRow(int row) {
+        return yTOff + row - (buffer / 2); // World tile row of the given map grid row.
+    }
 
-        boolean validPosFound = false;
-        PVector randValidPos = null;
+    public int[] getMapGridCoordAtPos(float x, float y) {
+        return new int[] {this.tileColFloor(x), this.tileRowFloor(y)}; // Prefer tileColFloor()/tileRowFloor() in hot paths; they do not allocate.
+    }
 
-        while(!validPosFound) {
+    public int tileColFloor(float x) {
+        // Map grid column at the given world x, rounding down (rather than towards zero) in negative world space.
+        return floor(x / GameConfig.MAP_TILE_SIZE) - xTOff + (buffer / 2);
+    }
 
-            int tileX = (int) Game.sketch.random(0, this.mapGridWidth);
-            int tileY = (int) Game.sketch.random(0, this.mapGridHeight);
+    public int tileRowFloor(float y) {
+        return floor(y / GameConfig.MAP_TILE_SIZE) - yTOff + (buffer / 2); // Map grid row at the given world y.
+    }
 
-            if (mapGrid[tileX][tileY] == terrainType) {
+    public boolean isInMapGrid(int col, int row) {
+        return col >= 0 && col < mapGridWidth && row >= 0 && row < mapGridHeight;
+    }
 
-                // Get map position of the tile. Actually return the centre of the tile to avoid tile boundary issues.
-                randValidPos = this.getPosAtMapGridCoord(tileX, tileY);
-                randValidPos.x = randValidPos.x + (float) (GameConfig.MAP_TILE_SIZE / 2);
-                randValidPos.y = randValidPos.y + (float) (GameConfig.MAP_TILE_SIZE / 2);
+    public GameConfig.Terrain getTerrainAtPos(float x, float y) {
 
-                // Game-Play Optimisation: SPawn on screen and at least don't respawn the player by the final boss.
-                // NOTE: May still spawn by other enemies, so further optimisation could be implemented.
-                if (randValidPos.x > 0 && randValidPos.x < GameConfig.CANVAS_WIDTH &&
-                    randValidPos.y > 0 && randValidPos.y < GameConfig.CANVAS_HEIGHT &&
-                    !gameState.getFlagship().isTargetInRange(randValidPos)) {
+        // Terrain enum at the given position, or null if the position is outside of the map.
+        int terrainOrdinal = this.getTerrainOrdinalAtPos(x, y);
+        return (terrainOrdinal < 0) ? null : TERRAINS[terrainOrdinal];
 
-                    validPosFound = true;
+    }
 
-                }
+    public int getTerrainOrdinalAtPos(float x, float y) {
 
-            }
+        // Convert position into tile co-ordinate and return terrain ordinal at the given tile co-ordinate.
+        int col = this.tileColFloor(x);
+        int row = this.tileRowFloor(y);
 
-        }
+        // Guard Condition: Make sure given map grid co-ordinates are within the map or we will get an error.
+        if (!this.isInMapGrid(col, row)) return -1;
 
-        return randValidPos;
+        return this.getTerrainOrdinalAtMapGridCoord(col, row);
 
     }
 
-    public PVector getPosAtMapGridCoord(int col, int row) {
+    public int getTerrainOrdinalAtMapGridCoord(int col, int row) {
+        return mapGrid[(this.getMapGridYSlot(row) * mapGridWidth) + this.getMapGridXSlot(col)];
+    }
+
+    int getMapGridSlot(int col, int row) {
+        return (this.getMapGridYSlot(row) * mapGridWidth) + this.getMapGridXSlot(col); // Index of the tile in the map grid.
+    }
+
+    boolean isLandAtMapGridCoord(int col, int row) {
+        int slot = this.getMapGridSlot(col, row);
+        return ((landBits[slot >> 6] >>> slot) & 1) != 0;
+    }
 
-        float x = (float) (col - buffer / 2) * GameConfig.MAP_TILE_SIZE - xROff;
-        float y = (float) (row - buffer / 2) * GameConfig.MAP_TILE_SIZE - yROff;
+    private int getMapGridXSlot(int col) {
 
-        return new PVector(x, y);
+        // Convert a map grid column (0 to width - 1) into the ring buffer slot holding it.
+        int xSlot = col + mapGridXSlotOff;
+        return (xSlot >= mapGridWidth) ? xSlot - mapGridWidth : xSlot;
 
     }
 
-    public int[] getMapGridCoordAtPos(int x, int y) {
+    private int getMapGridYSlot(int row) {
 
-        int[] coords = new int[2];
+        // Convert a map grid row (0 to height - 1) into the ring buffer slot holding it.
+        int ySlot = row + mapGridYSlotOff;
+        return (ySlot >= mapGridHeight) ? ySlot - mapGridHeight : ySlot;
 
-        coords[0] = (int) ((x + xROff) / GameConfig.MAP_TILE_SIZE) + (buffer / 2);
-        coords[1] = (int) ((y + yROff) / GameConfig.MAP_TILE_SIZE) + (buffer / 2);
+    }
 
-        return coords; // Coords of x value in 0, coord of y value in 1.
+    public boolean isLandAtPos(float x, float y) {
+        return isLand(this.getTerrainOrdinalAtPos(x, y));
+    }
 
+    public boolean isWaterAtPos(float x, float y) {
+        return isWater(this.getTerrainOrdinalAtPos(x, y));
     }
 
-    public GameConfig.Terrain getTerrainAtPos(int x, int y) {
+    public static boolean isLand(int terrainOrdinal) {
+        // Ordinals outside the map (i.e., -1) shift to the top bit, which is in neither terrain mask.
+        return ((1 << terrainOrdinal) & GameConfig.TERRAIN_LAND_MASK) != 0;
+    }
 
-        // Convert position into tile co-ordinate and return terrain at the given tile co-ordinate.
-        int[] coords = getMapGridCoordAtPos(x, y);
+    public static boolean isWater(int terrainOrdinal) {
+        return ((1 << terrainOrdinal) & GameConfig.TERRAIN_WATER_MASK) != 0;
+    }
 
-        // Guard Condition: Make sure given map grid co-ordinates are within the map or we will get an error.
-        if (coords[0] < 0 || coords[0] >= gameState.getMap().getMapGridWidth() ||
-            coords[1] < 0 || coords[1] >= gameState.getMap().getMapGridHeight()) return null;
+    public static long packCoords(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL); // Pack a pair of (possibly negative) co-ordinates into a single key.
+    }
+
+    public GameConfig.MapRenderer getRenderer() {
+        return renderer;
+    }
+
+    public float[] getRendererBenchmarkMillis() {
+        return rendererBenchmarkMillis;
+    }
+
+    public MapDistanceField getDistanceField() {
+        return distanceField;
+    }
 
-        GameConfig.Terrain terrainAtPos = mapGrid[coords[0]][coords[1]];
-        return terrainAtPos;
+    public MapRegionLabels getRegionLabels() {
+        return regionLabels;
+    }
 
+    public MapFlowField getFlowField() {
+        return flowField;
     }
 
-    public boolean isLandAtPos(int x, int y) {
+    public MapMinimap getMinimap() {
+        return minimap;
+    }
 
-        GameConfig.Terrain terrainAtPos = this.getTerrainAtPos(x, y);
-        return (terrainAtPos == GameConfig.Terrain.SAND || terrainAtPos == GameConfig.Terrain.GRASS);
+    public MapPathfinder getPathfinder() {
+        return pathfinder;
+    }
 
+    public MapSpawnRegistry getSpawnRegistry() {
+        return spawnRegistry;
     }
 
-    public boolean isWaterAtPos(int x, int y) {
+    public MapTerrainCache getTerrainCache() {
+        return terrainCache;
+    }
 
-        GameConfig.Terrain terrainAtPos = this.getTerrainAtPos(x, y);
-        return (terrainAtPos == GameConfig.Terrain.DEEP_WATER || terrainAtPos == GameConfig.Terrain.SHALLOW_WATER);
+    public MapTerrainPrefetcher getTerrainPrefetcher() {
+        return terrainPrefetcher;
+    }
 
+    public long getLateChunkGenerations() {
+        return lateChunkGenerations;
     }
 
     public int getMapGridHeight() {
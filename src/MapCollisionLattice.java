@@ -1,9 +1,6 @@
+import java.util.Arrays;
 
-import processing.core.PVector;
-
-import java.util.ArrayList;
-
-import static processing.core.PApplet.ceil;
+import static processing.core.PApplet.*;
 
 public class MapCollisionLattice {
 
@@ -14,10 +11,36 @@ public class MapCollisionLattice {
 
     private final Map map; // Reference to the game map.
 
-    private final int latticeWidth; // Width of the bin lattice.
-    private final int latticeHeight; // Height of the bin lattice
-
-    private ArrayList<ObjGameGeneric>[][] lattice; // Lattice with each cell corresponding to list of objects in said bin.
+    private static final int NUM_KINDS = GameConfig.LatticeKind.values().length;
+    private static final int CELL_SIZE = GameConfig.LATTICE_RES * GameConfig.MAP_TILE_SIZE; // Cell width/height in the world.
+
+    // Cells are anchored to the world rather than the map grid, so panning the map never moves an object between cells.
+    // They are stored in a toroidal ring a little larger than the map grid; objects further away share a ring cell with
+    // nearer ones, but each remembers the world cell it is in, so only objects truly in a queried cell are visited.
+    private final int ringWidth; // Width of the ring of cells.
+    private final int ringHeight; // Height of the ring of cells.
+
+    // Per handle (an object's index into these arrays), the object, its kind, and the world cell it was last placed in.
+    private ObjGameGeneric[] objects;
+    private int[] objectKinds;
+    private int[] objectCellCols;
+    private int[] objectCellRows;
+    private int numHandles; // Handles handed out so far (free handles below this are re-used first).
+    private int numObjects; // Objects currently in the lattice.
+    private long numCellChanges; // Number of times an object was moved into a different cell.
+
+    // Each ring cell is split into a bin per kind of object (i.e., layers), numbered (ringCell * NUM_KINDS) + kind. A bin
+    // is a doubly linked list of handles, so moving an object between bins takes constant time. Free handles are chained
+    // through nextInBin, starting from freeHandle.
+    private final int[] binHeads;
+    private int[] nextInBin;
+    private int[] prevInBin;
+    private int freeHandle = -1;
+
+    // Action applied to each object near another, visited in place; callers keep one per object to avoid allocating.
+    public interface NearbyObjectAction {
+        void apply(ObjGameGeneric obj);
+    }
 
 
     // ########################################################################
@@ -28,10 +51,20 @@ public class MapCollisionLattice {
 
         this.map = map; // Reference to the game map.
 
-        this.latticeWidth = ceil((float) this.map.getMapGridWidth() / GameConfig.LATTICE_RES);
-        this.latticeHeight = ceil((float) this.map.getMapGridHeight() / GameConfig.LATTICE_RES);
+        // The map grid straddles at most one more cell than it would if aligned with them, plus a cell of slack each way.
+        this.ringWidth = ceil((float) this.map.getMapGridWidth() / GameConfig.LATTICE_RES) + 2;
+        this.ringHeight = ceil((float) this.map.getMapGridHeight() / GameConfig.LATTICE_RES) + 2;
 
-        this.reset(); // Initialise the lattice array.
+        this.binHeads = new int[ringWidth * ringHeight * NUM_KINDS];
+        Arrays.fill(binHeads, -1);
+
+        // Arrays only grow (doubling) when more objects are in the lattice than ever before, so steady frames allocate nothing.
+        this.objects = new ObjGameGeneric[GameConfig.LATTICE_INIT_CAPACITY];
+        this.objectKinds = new int[GameConfig.LATTICE_INIT_CAPACITY];
+        this.objectCellCols = new int[GameConfig.LATTICE_INIT_CAPACITY];
+        this.objectCellRows = new int[GameConfig.LATTICE_INIT_CAPACITY];
+        this.nextInBin = new int[GameConfig.LATTICE_INIT_CAPACITY];
+        this.prevInBin = new int[GameConfig.LATTICE_INIT_CAPACITY];
 
     }
 
@@ -40,56 +73,166 @@ public class MapCollisionLattice {
     // Collision Lattice Update Methods:
     // ########################################################################
 
-    public void reset() {
-        this.lattice = new ArrayList[latticeHeight][latticeWidth];
+    public void insert(ObjGameGeneric obj, GameConfig.LatticeKind kind) {
+
+        if (obj.getLatticeHandle() >= 0) return; // Already in the lattice.
+
+        // Take a free handle if there is one, otherwise a new one (growing the arrays if they are full).
+        int handle = freeHandle;
+        if (handle >= 0) freeHandle = nextInBin[handle];
+        else {
+            if (numHandles == objects.length) this.grow();
+            handle = numHandles++;
+        }
+
+        objects[handle] = obj;
+        objectKinds[handle] = kind.ordinal();
+        objectCellCols[handle] = this.cellCol(obj.getPosX());
+        objectCellRows[handle] = this.cellRow(obj.getPosY());
+        this.link(handle);
+
+        obj.setLatticeHandle(handle);
+        numObjects++;
+
     }
 
-    public void register(ObjGameGeneric obj) {
+    public void move(ObjGameGeneric obj) {
 
-        // Get co-ordinate of current obj in the lattice given its position.
-        int[] latticeGridCoord = this.getLatticeCoordAtPos((int) obj.getPosX(), (int) obj.getPosY());
-        if (latticeGridCoord == null) return; // Cannot register if not at location valid for lattice.
+        int handle = obj.getLatticeHandle();
+        if (handle < 0) return; // Not in the lattice.
 
-        // Check if a list of objects has been created for the bin in the lattice - if not, create one.
-        if (lattice[latticeGridCoord[1]][latticeGridCoord[0]] == null) {
-            lattice[latticeGridCoord[1]][latticeGridCoord[0]] = new ArrayList<>();
-        }
+        // Most updates leave an object within its cell, in which case the lattice is left alone.
+        int cellCol = this.cellCol(obj.getPosX()), cellRow = this.cellRow(obj.getPosY());
+        if (cellCol == objectCellCols[handle] && cellRow == objectCellRows[handle]) return;
+
+        this.unlink(handle);
+        objectCellCols[handle] = cellCol;
+        objectCellRows[handle] = cellRow;
+        this.link(handle);
+        numCellChanges++;
+
+    }
+
+    public void remove(ObjGameGeneric obj) {
+
+        int handle = obj.getLatticeHandle();
+        if (handle < 0) return; // Not in the lattice.
+
+        // Drop the reference (so the removed object can be collected), and put the handle up for re-use.
+        this.unlink(handle);
+        objects[handle] = null;
+        nextInBin[handle] = freeHandle;
+        freeHandle = handle;
+
+        obj.setLatticeHandle(-1);
+        numObjects--;
+
+    }
 
-        // Add the object to the bin in the lattice.
-        lattice[latticeGridCoord[1]][latticeGridCoord[0]].add(obj);
+    private void link(int handle) {
+        // Push the handle onto the front of the bin for its cell and kind.
+        int bin = this.getBin(objectCellCols[handle], objectCellRows[handle]) + objectKinds[handle];
+        prevInBin[handle] = -1;
+        nextInBin[handle] = binHeads[bin];
+        if (binHeads[bin] >= 0) prevInBin[binHeads[bin]] = handle;
+        binHeads[bin] = handle;
+    }
 
+    private void unlink(int handle) {
+        // Splice the handle out of the bin it is in.
+        int bin = this.getBin(objectCellCols[handle], objectCellRows[handle]) + objectKinds[handle];
+        if (prevInBin[handle] >= 0) nextInBin[prevInBin[handle]] = nextInBin[handle];
+        else binHeads[bin] = nextInBin[handle];
+        if (nextInBin[handle] >= 0) prevInBin[nextInBin[handle]] = prevInBin[handle];
     }
 
-    public ArrayList<ObjGameGeneric> nearbyObjects(ObjGameGeneric obj) {
+    private void grow() {
+        objects = Arrays.copyOf(objects, objects.length * 2);
+        objectKinds = Arrays.copyOf(objectKinds, objects.length);
+        objectCellCols = Arrays.copyOf(objectCellCols, objects.length);
+        objectCellRows = Arrays.copyOf(objectCellRows, objects.length);
+        nextInBin = Arrays.copyOf(nextInBin, objects.length);
+        prevInBin = Arrays.copyOf(prevInBin, objects.length);
+    }
 
-        int[] latticeGridCoord = this.getLatticeCoordAtPos((int) obj.getPosX(), (int) obj.getPosY());
-        if (latticeGridCoord == null) return new ArrayList<>(); // Empty array list if not in lattice - should not handle collisions.
+    public void forEachNear(ObjGameGeneric obj, int kindMask, NearbyObjectAction action) {
 
-        ArrayList<ObjGameGeneric> nearbyLatticeObjects = new ArrayList<>();
+        // Objects out the map do not need to have collisions enforced, their interactions should occur in map.
+        int mapGridCol = this.map.tileColFloor(obj.getPosX());
+        int mapGridRow = this.map.tileRowFloor(obj.getPosY());
+        if (mapGridCol <= 0 || mapGridCol >= this.map.getMapGridWidth() ||
+                mapGridRow <= 0 || mapGridRow >= this.map.getMapGridHeight()) return;
 
-        // Add all objects in the current lattice cell and all immediate neighbours.
-        for (int i = latticeGridCoord[1] - 1; i <= latticeGridCoord[1] + 1; i++) {
+        int latticeCol = this.cellCol(obj.getPosX());
+        int latticeRow = this.cellRow(obj.getPosY());
 
-            if (i < 0 || i >= this.latticeHeight) continue; // Edge of lattice condition - do not go out-of-bounds.
+        // Visit all objects of the given kinds (a bitmask over kind ordinals) in the current lattice cell and all immediate
+        // neighbours, in place (i.e., without a list); only the layers of those kinds are looked at.
+        for (int i = latticeRow - 1; i <= latticeRow + 1; i++) {
 
-            for (int j = latticeGridCoord[0] - 1; j <= latticeGridCoord[0] + 1; j++) {
+            if (i < this.getMapCellRowStart() || i > this.getMapCellRowEnd()) continue; // Edge of map condition.
 
-                if (j < 0 || j >= this.latticeWidth) continue; // Edge of lattice condition - do not go out-of-bounds.
+            for (int j = latticeCol - 1; j <= latticeCol + 1; j++) {
 
-                if (lattice[i][j] == null) continue; // If no objects in cell, then skip this lattice cell.
+                if (j < this.getMapCellColStart() || j > this.getMapCellColEnd()) continue; // Edge of map condition.
 
-                // Add all objects in this current lattice cell to the set of nearby objects to return.
-                nearbyLatticeObjects.addAll(lattice[i][j]);
+                int cellBin = this.getBin(j, i);
+                for (int kinds = kindMask; kinds != 0; kinds &= kinds - 1) {
+                    int bin = cellBin + Integer.numberOfTrailingZeros(kinds); // Bin of the lowest kind left in the mask.
+                    for (int handle = binHeads[bin]; handle >= 0; handle = nextInBin[handle]) {
+                        // Skip objects sharing the ring cell from elsewhere in the world.
+                        if (objectCellCols[handle] == j && objectCellRows[handle] == i) action.apply(objects[handle]);
+                    }
+                }
 
             }
 
         }
 
-        // Returned list of nearby game objects to an object should not contain itself.
-        // Actually, this is true for collision detection but not true for, say, flocking, so don't assume here.
-        //nearbyLatticeObjects.remove(obj);
+        // Visited objects include the object itself; this is true for collision detection but not true for, say,
+        // flocking (which ignores objects at zero distance), so don't assume here.
+
+    }
+
+    public void queryRadius(float x, float y, float radius, int kindMask, NearbyObjectAction action) {
+
+        // Visit all objects of the given kinds within the radius of the given world position, in place. Only the cells
+        // the circle overlaps are looked at, so no object within range is missed, however large the radius is compared
+        // to the cells (and however small, no cell is looked at needlessly).
+        float radiusSq = radius * radius;
+        int rowStart = max(this.cellRow(y - radius), this.getMapCellRowStart());
+        int rowEnd = min(this.cellRow(y + radius), this.getMapCellRowEnd());
+        int mapColStart = this.getMapCellColStart(), mapColEnd = this.getMapCellColEnd();
+
+        for (int i = rowStart; i <= rowEnd; i++) {
 
-        return nearbyLatticeObjects;
+            // The circle is widest across a row of cells where it is nearest the centre (i.e., at its edge nearest y).
+            float rowTop = (float) i * CELL_SIZE, rowBottom = rowTop + CELL_SIZE;
+            float rowDist = (y < rowTop) ? rowTop - y : ((y > rowBottom) ? y - rowBottom : 0);
+            float halfWidth = sqrt(max(radiusSq - (rowDist * rowDist), 0));
+            int colStart = max(this.cellCol(x - halfWidth), mapColStart);
+            int colEnd = min(this.cellCol(x + halfWidth), mapColEnd);
+
+            for (int j = colStart; j <= colEnd; j++) {
+
+                int cellBin = this.getBin(j, i);
+                for (int kinds = kindMask; kinds != 0; kinds &= kinds - 1) {
+                    int bin = cellBin + Integer.numberOfTrailingZeros(kinds); // Bin of the lowest kind left in the mask.
+                    for (int handle = binHeads[bin]; handle >= 0; handle = nextInBin[handle]) {
+
+                        if (objectCellCols[handle] != j || objectCellRows[handle] != i) continue; // Elsewhere in the world.
+
+                        // Compare squared distances, so objects in overlapping cells but out of range cost no square root.
+                        ObjGameGeneric obj = objects[handle];
+                        float dx = obj.getPosX() - x, dy = obj.getPosY() - y;
+                        if ((dx * dx) + (dy * dy) <= radiusSq) action.apply(obj);
+
+                    }
+                }
+
+            }
+
+        }
 
     }
 
@@ -102,20 +245,16 @@ public class MapCollisionLattice {
 
         Game.sketch.stroke(255, 255, 255, 50);
 
-        // Display the bin lattice spatial sub-division.
-        for (int col = 0; col < this.latticeWidth; col++) {
-            for (int row = 0; row < this.latticeHeight; row++) {
+        // Display the bin lattice spatial sub-division over the map grid.
+        for (int col = this.getMapCellColStart(); col <= this.getMapCellColEnd(); col++) {
+            for (int row = this.getMapCellRowStart(); row <= this.getMapCellRowEnd(); row++) {
 
                 // Highlight lattice cell if it contains game objects.
-                if (this.lattice[row][col] != null) Game.sketch.fill(255, 255, 255, 50);
+                if (this.isCellOccupied(col, row)) Game.sketch.fill(255, 255, 255, 50);
                 else Game.sketch.noFill();
 
-                // Calculate on screen co-ordinates of this lattice.
-                PVector cellMapGridCoord = this.map.getPosAtMapGridCoord(col * GameConfig.LATTICE_RES, row * GameConfig.LATTICE_RES);
-                int rectSize = GameConfig.LATTICE_RES * GameConfig.MAP_TILE_SIZE;
-
-                // Show lattice cell on the canvas.
-                Game.sketch.rect(cellMapGridCoord.x, cellMapGridCoord.y, rectSize, rectSize);
+                // Show lattice cell on the canvas, at its position in the world.
+                Game.sketch.rect(col * CELL_SIZE, row * CELL_SIZE, CELL_SIZE, CELL_SIZE);
 
             }
         }
@@ -127,25 +266,58 @@ public class MapCollisionLattice {
     // Collision Lattice Utility Methods:
     // ########################################################################
 
-    private int[] getLatticeCoordAtPos(float x, float y) {
+    private int cellCol(float x) {
+        return floor(x / CELL_SIZE); // World cell column at the given world x.
+    }
 
-        int[] latticeCoord = new int[2];
+    private int cellRow(float y) {
+        return floor(y / CELL_SIZE); // World cell row at the given world y.
+    }
 
-        // Convert object position to a map grid co-ordinate (i.e., which tile is the object in).
-        int[] mapGridCoord = this.map.getMapGridCoordAtPos((int) x, (int) y);
+    private int getBin(int cellCol, int cellRow) {
+        // First bin (i.e., that of kind 0) of the ring cell holding the given world cell.
+        return ((Math.floorMod(cellRow, ringHeight) * ringWidth) + Math.floorMod(cellCol, ringWidth)) * NUM_KINDS;
+    }
 
-        if (mapGridCoord[0] <= 0 || mapGridCoord[0] >= this.map.getMapGridWidth() ||
-                mapGridCoord[1] <= 0 || mapGridCoord[1] >= this.map.getMapGridHeight()) {
-            // Objects out the map do not need to have collisions enforced, their interactions should occur in map.
-            return null;
+    private boolean isCellOccupied(int cellCol, int cellRow) {
+        int cellBin = this.getBin(cellCol, cellRow);
+        for (int bin = cellBin; bin < cellBin + NUM_KINDS; bin++) {
+            for (int handle = binHeads[bin]; handle >= 0; handle = nextInBin[handle]) {
+                if (objectCellCols[handle] == cellCol && objectCellRows[handle] == cellRow) return true;
+            }
         }
+        return false;
+    }
+
+    // World cells overlapping the map grid (less its outermost tiles, where objects are out the map), inclusive.
+
+    private int getMapCellColStart() {
+        return this.cellCol(this.map.tileX(1));
+    }
+
+    private int getMapCellColEnd() {
+        return this.cellCol(this.map.tileX(this.map.getMapGridWidth() - 1));
+    }
+
+    private int getMapCellRowStart() {
+        return this.cellRow(this.map.tileY(1));
+    }
+
+    private int getMapCellRowEnd() {
+        return this.cellRow(this.map.tileY(this.map.getMapGridHeight() - 1));
+    }
 
-        // Convert tile of object to a given bin within the lattice.
-        latticeCoord[0] = mapGridCoord[0] / GameConfig.LATTICE_RES;
-        latticeCoord[1] = mapGridCoord[1] / GameConfig.LATTICE_RES;
 
-        return latticeCoord;
+    // ########################################################################
+    // Collision Lattice Getters:
+    // ########################################################################
+
+    public int getNumObjects() {
+        return numObjects;
+    }
 
+    public long getNumCellChanges() {
+        return numCellChanges;
     }
 
 
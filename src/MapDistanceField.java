@@ -0,0 +1,154 @@
+import static processing.core.PApplet.*;
+
+public class MapDistanceField {
+
+
+    // ########################################################################
+    // Distance Field Attributes:
+    // ########################################################################
+
+    private final Map map; // Reference to the game map, whose terrain the distances are measured over.
+
+    // Distances are chamfer distances (3 per orthogonal step, 4 per diagonal step), so one tile is 3 units.
+    private static final int ORTHO_STEP = 3;
+    private static final int DIAG_STEP = 4;
+
+    private final int maxDist; // Distances are capped at this many units (i.e., terrain further away is out of range).
+    private final int border; // Tiles either side of an updated region whose distances may change.
+
+    private final int mapGridWidth, mapGridHeight;
+
+    // Per map grid slot, distance to the nearest land tile (0 on land) and nearest water tile (0 on water).
+    private final byte[] distToLand;
+    private final byte[] distToWater;
+
+    // Scratch space for the window of tiles being re-computed, in window co-ordinates.
+    private final int[] windowLand;
+    private final int[] windowWater;
+
+
+    // ########################################################################
+    // Distance Field Constructors:
+    // ########################################################################
+
+    public MapDistanceField(Map map, int maxDistTiles) {
+
+        this.map = map; // Reference to the game map.
+
+        this.maxDist = maxDistTiles * ORTHO_STEP;
+        this.border = maxDistTiles;
+
+        this.mapGridWidth = map.getMapGridWidth();
+        this.mapGridHeight = map.getMapGridHeight();
+
+        this.distToLand = new byte[mapGridWidth * mapGridHeight];
+        this.distToWater = new byte[mapGridWidth * mapGridHeight];
+        this.windowLand = new int[mapGridWidth * mapGridHeight];
+        this.windowWater = new int[mapGridWidth * mapGridHeight];
+
+    }
+
+
+    // ########################################################################
+    // Distance Field Update Methods:
+    // ########################################################################
+
+    public void update(int col, int row, int width, int height) {
+
+        // Tiles within range of the given (newly generated) rectangle may now be nearer to terrain, so are re-computed.
+        int bandColStart = max(col - border, 0), bandColEnd = min(col + width + border, mapGridWidth);
+        int bandRowStart = max(row - border, 0), bandRowEnd = min(row + height + border, mapGridHeight);
+
+        // Their nearest terrain (within range) can lie up to range further out, so the window computed over is wider still.
+        int winColStart = max(bandColStart - border, 0), winColEnd = min(bandColEnd + border, mapGridWidth);
+        int winRowStart = max(bandRowStart - border, 0), winRowEnd = min(bandRowEnd + border, mapGridHeight);
+        int winWidth = winColEnd - winColStart;
+
+        // Seed the window; land tiles are at zero distance to land, water tiles at zero distance to water.
+        for (int r = winRowStart; r < winRowEnd; r++) {
+            int winRowOff = (r - winRowStart) * winWidth;
+            for (int c = winColStart; c < winColEnd; c++) {
+                boolean land = map.isLandAtMapGridCoord(c, r);
+                windowLand[winRowOff + (c - winColStart)] = land ? 0 : maxDist;
+                windowWater[winRowOff + (c - winColStart)] = land ? maxDist : 0;
+            }
+        }
+
+        int winHeight = winRowEnd - winRowStart;
+        this.chamfer(windowLand, winWidth, winHeight);
+        this.chamfer(windowWater, winWidth, winHeight);
+
+        // Only the band is written back; tiles towards the edges of the window may not see all their nearest terrain.
+        for (int r = bandRowStart; r < bandRowEnd; r++) {
+            int winRowOff = (r - winRowStart) * winWidth;
+            for (int c = bandColStart; c < bandColEnd; c++) {
+                int slot = map.getMapGridSlot(c, r);
+                distToLand[slot] = (byte) windowLand[winRowOff + (c - winColStart)];
+                distToWater[slot] = (byte) windowWater[winRowOff + (c - winColStart)];
+            }
+        }
+
+    }
+
+    private void chamfer(int[] dist, int width, int height) {
+
+        // Forward pass (top-left to bottom-right), taking distances from the already visited neighbours.
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                int i = (r * width) + c;
+                int d = dist[i];
+                if (c > 0) d = min(d, dist[i - 1] + ORTHO_STEP);
+                if (r > 0) {
+                    d = min(d, dist[i - width] + ORTHO_STEP);
+                    if (c > 0) d = min(d, dist[i - width - 1] + DIAG_STEP);
+                    if (c < width - 1) d = min(d, dist[i - width + 1] + DIAG_STEP);
+                }
+                dist[i] = min(d, maxDist);
+            }
+        }
+
+        // Backward pass (bottom-right to top-left), for the neighbours on the other side.
+        for (int r = height - 1; r >= 0; r--) {
+            for (int c = width - 1; c >= 0; c--) {
+                int i = (r * width) + c;
+                int d = dist[i];
+                if (c < width - 1) d = min(d, dist[i + 1] + ORTHO_STEP);
+                if (r < height - 1) {
+                    d = min(d, dist[i + width] + ORTHO_STEP);
+                    if (c < width - 1) d = min(d, dist[i + width + 1] + DIAG_STEP);
+                    if (c > 0) d = min(d, dist[i + width - 1] + DIAG_STEP);
+                }
+                dist[i] = d;
+            }
+        }
+
+    }
+
+
+    // ########################################################################
+    // Distance Field Getters:
+    // ########################################################################
+
+    public float getSignedDistance(int col, int row, boolean fromLand) {
+
+        // Distance in tiles from the boundary of the given terrain; positive outside it, negative inside it.
+        col = constrain(col, 0, mapGridWidth - 1);
+        row = constrain(row, 0, mapGridHeight - 1);
+        int slot = map.getMapGridSlot(col, row);
+
+        int signedDist = distToLand[slot] - distToWater[slot]; // Positive in water, negative on land.
+        return (float) (fromLand ? signedDist : -signedDist) / ORTHO_STEP;
+
+    }
+
+    public float getGradientX(int col, int row, boolean fromLand) {
+        // Central difference; points away from the given terrain (i.e., towards increasing distance).
+        return (this.getSignedDistance(col + 1, row, fromLand) - this.getSignedDistance(col - 1, row, fromLand)) / 2;
+    }
+
+    public float getGradientY(int col, int row, boolean fromLand) {
+        return (this.getSignedDistance(col, row + 1, fromLand) - this.getSignedDistance(col, row - 1, fromLand)) / 2;
+    }
+
+
+}
@@ -0,0 +1,161 @@
+import java.util.Arrays;
+
+import static processing.core.PApplet.sqrt;
+
+public class MapFlowField {
+
+
+    // ########################################################################
+    // Flow Field Attributes:
+    // ########################################################################
+
+    private final Map map; // Reference to the game map, whose water tiles the field flows over.
+
+    private static final byte NO_FLOW = -1; // Tiles that cannot reach the target over water (or are the target itself).
+
+    // Steps to the eight neighbouring tiles, orthogonal first (so ties between equally near neighbours go straight).
+    private static final int[] DIR_COL = {1, 0, -1, 0, 1, -1, -1, 1};
+    private static final int[] DIR_ROW = {0, 1, 0, -1, 1, 1, -1, -1};
+    private static final float[] DIR_X = new float[8], DIR_Y = new float[8]; // Unit vector of each step.
+
+    static {
+        for (int dir = 0; dir < 8; dir++) {
+            float length = sqrt((DIR_COL[dir] * DIR_COL[dir]) + (DIR_ROW[dir] * DIR_ROW[dir]));
+            DIR_X[dir] = DIR_COL[dir] / length;
+            DIR_Y[dir] = DIR_ROW[dir] / length;
+        }
+    }
+
+    private final int mapGridWidth, mapGridHeight;
+
+    // Per map grid slot, so directions stay with their tiles as the map scrolls between updates.
+    private final int[] stepsToTarget; // Steps over water to the target tile (-1 if it cannot be reached).
+    private final byte[] flowDirs; // Direction of the neighbour to move to, towards the target (NO_FLOW if none).
+    private final int[] tileQueue; // Scratch queue of map grid tiles for the breadth-first search.
+
+    private int framesSinceUpdate = GameConfig.MAP_FLOW_FIELD_INTERVAL; // Frames since the field was last computed.
+    private int numReached; // Number of tiles that could reach the target as of the last update.
+
+
+    // ########################################################################
+    // Flow Field Constructors:
+    // ########################################################################
+
+    public MapFlowField(Map map) {
+
+        this.map = map; // Reference to the game map.
+
+        this.mapGridWidth = map.getMapGridWidth();
+        this.mapGridHeight = map.getMapGridHeight();
+
+        this.stepsToTarget = new int[mapGridWidth * mapGridHeight];
+        this.flowDirs = new byte[mapGridWidth * mapGridHeight];
+        this.tileQueue = new int[mapGridWidth * mapGridHeight];
+        Arrays.fill(flowDirs, NO_FLOW);
+
+    }
+
+
+    // ########################################################################
+    // Flow Field Update Methods:
+    // ########################################################################
+
+    public void update(float targetX, float targetY) {
+
+        // The field is shared by every pursuer, and only re-computed every so often as the target moves.
+        if (++framesSinceUpdate < GameConfig.MAP_FLOW_FIELD_INTERVAL) return;
+        framesSinceUpdate = 0;
+
+        Arrays.fill(stepsToTarget, -1);
+        Arrays.fill(flowDirs, NO_FLOW);
+        numReached = 0;
+
+        int targetCol = map.tileColFloor(targetX), targetRow = map.tileRowFloor(targetY);
+        if (!map.isInMapGrid(targetCol, targetRow) || map.isLandAtMapGridCoord(targetCol, targetRow)) return;
+
+        // Breadth-first search over water, outwards from the target tile as far as the radius of the field.
+        int head = 0, tail = 0;
+        stepsToTarget[map.getMapGridSlot(targetCol, targetRow)] = 0;
+        tileQueue[tail++] = (targetRow * mapGridWidth) + targetCol;
+
+        while (head < tail) {
+
+            int tile = tileQueue[head++];
+            int col = tile % mapGridWidth, row = tile / mapGridWidth;
+            int steps = stepsToTarget[map.getMapGridSlot(col, row)];
+            if (steps >= GameConfig.MAP_FLOW_FIELD_RADIUS) continue; // Tiles further away are left to the pathfinder.
+
+            for (int dir = 0; dir < 4; dir++) {
+                int nextCol = col + DIR_COL[dir], nextRow = row + DIR_ROW[dir];
+                if (!map.isInMapGrid(nextCol, nextRow) || map.isLandAtMapGridCoord(nextCol, nextRow)) continue;
+                int nextSlot = map.getMapGridSlot(nextCol, nextRow);
+                if (stepsToTarget[nextSlot] >= 0) continue;
+                stepsToTarget[nextSlot] = steps + 1;
+                tileQueue[tail++] = (nextRow * mapGridWidth) + nextCol;
+            }
+
+        }
+
+        // Each reached tile flows to its nearest neighbour (diagonals only where both orthogonal tiles are open water).
+        numReached = tail;
+        for (int i = 1; i < tail; i++) {
+
+            int col = tileQueue[i] % mapGridWidth, row = tileQueue[i] / mapGridWidth;
+            int bestSteps = stepsToTarget[map.getMapGridSlot(col, row)];
+            byte bestDir = NO_FLOW;
+
+            for (int dir = 0; dir < 8; dir++) {
+                int nextSteps = this.getStepsToTarget(col + DIR_COL[dir], row + DIR_ROW[dir]);
+                if (nextSteps < 0 || nextSteps >= bestSteps) continue;
+                if (dir >= 4 && (this.getStepsToTarget(col + DIR_COL[dir], row) < 0 ||
+                                 this.getStepsToTarget(col, row + DIR_ROW[dir]) < 0)) continue; // Cuts a corner of land.
+                bestSteps = nextSteps;
+                bestDir = (byte) dir;
+            }
+
+            flowDirs[map.getMapGridSlot(col, row)] = bestDir;
+
+        }
+
+    }
+
+    public void clear(int col, int row, int width, int height) {
+
+        // Newly generated tiles have no flow until the next update.
+        for (int y = row; y < row + height; y++) {
+            for (int x = col; x < col + width; x++) {
+                int slot = map.getMapGridSlot(x, y);
+                stepsToTarget[slot] = -1;
+                flowDirs[slot] = NO_FLOW;
+            }
+        }
+
+    }
+
+
+    // ########################################################################
+    // Flow Field Getters:
+    // ########################################################################
+
+    private int getStepsToTarget(int col, int row) {
+        return map.isInMapGrid(col, row) ? stepsToTarget[map.getMapGridSlot(col, row)] : -1;
+    }
+
+    public boolean hasFlow(int col, int row) {
+        return map.isInMapGrid(col, row) && flowDirs[map.getMapGridSlot(col, row)] != NO_FLOW;
+    }
+
+    public float getFlowX(int col, int row) {
+        return DIR_X[flowDirs[map.getMapGridSlot(col, row)]]; // Unit direction towards the target; check hasFlow first.
+    }
+
+    public float getFlowY(int col, int row) {
+        return DIR_Y[flowDirs[map.getMapGridSlot(col, row)]];
+    }
+
+    public int getNumReached() {
+        return numReached;
+    }
+
+
+}
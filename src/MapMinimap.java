@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+import processing.core.PImage;
+
+import static processing.core.PApplet.*;
+
+public class MapMinimap {
+
+
+    // ########################################################################
+    // Minimap Attributes:
+    // ########################################################################
+
+    private final int chunkSize; // Width and height of a terrain chunk in tiles.
+    private final int worldChunks; // Width and height, in chunks, of the square of the world covered (centred on the origin).
+    private final int originTile; // Chunk tile at the top-left corner of the covered square, along both axes.
+    private final int worldTileOffset; // Offset from a world tile to its chunk tile (chunks are keyed by noise tile).
+    private final int numLevels; // Number of levels in the pyramid; level 0 is a pixel per tile, each next level halves it.
+
+    private final int[] terrainColours; // Colour of each terrain (by ordinal).
+
+    // Mip pyramid of the explored world; one image per level, with unexplored chunks left transparent.
+    private final PImage[] levelImages;
+    private final boolean[] exploredChunks; // Whether each chunk of the covered square has been added to the pyramid.
+    private int numExplored; // Number of chunks added to the pyramid.
+
+    // Scratch space for the terrain of a chunk being added, per level (level 0 is the chunk itself).
+    private final byte[][] levelTerrain;
+    private final int[] terrainCounts; // Scratch tally of each terrain among a block of tiles being downsampled.
+
+    private int zoomLevel; // Level of the pyramid displayed.
+
+
+    // ########################################################################
+    // Minimap Constructors:
+    // ########################################################################
+
+    public MapMinimap(Map map, int worldChunks, int numLevels, int worldTileOffset) {
+
+        this.chunkSize = GameConfig.MAP_CHUNK_SIZE;
+        this.worldChunks = worldChunks;
+        this.originTile = -(worldChunks / 2) * chunkSize;
+        this.worldTileOffset = worldTileOffset;
+        this.numLevels = min(numLevels, Integer.numberOfTrailingZeros(chunkSize) + 1); // Stop at a pixel per chunk.
+
+        GameConfig.Terrain[] terrains = GameConfig.Terrain.values();
+        this.terrainColours = new int[terrains.length];
+        for (GameConfig.Terrain terrain : terrains) terrainColours[terrain.ordinal()] = map.getTerrainColour(terrain);
+        this.terrainCounts = new int[terrains.length];
+
+        this.levelImages = new PImage[this.numLevels];
+        this.levelTerrain = new byte[this.numLevels][];
+        for (int level = 0; level < this.numLevels; level++) {
+            int levelSize = (worldChunks * chunkSize) >> level, levelChunkSize = chunkSize >> level;
+            levelImages[level] = Game.sketch.createImage(levelSize, levelSize, ARGB); // Fully transparent to begin with.
+            if (level > 0) levelTerrain[level] = new byte[levelChunkSize * levelChunkSize];
+        }
+        this.exploredChunks = new boolean[worldChunks * worldChunks];
+
+    }
+
+
+    // ########################################################################
+    // Minimap Update Methods:
+    // ########################################################################
+
+    public void addChunk(int chunkX, int chunkY, byte[] chunk) {
+
+        // Chunks are added once, the first time they are copied into the map grid (and only within the covered square).
+        int squareX = chunkX + (worldChunks / 2), squareY = chunkY + (worldChunks / 2);
+        if (squareX < 0 || squareX >= worldChunks || squareY < 0 || squareY >= worldChunks) return;
+        if (exploredChunks[(squareY * worldChunks) + squareX]) return;
+        exploredChunks[(squareY * worldChunks) + squareX] = true;
+        numExplored++;
+
+        // Each level is downsampled from the one below it, then written into its image at the chunk's position.
+        levelTerrain[0] = chunk;
+        for (int level = 0; level < numLevels; level++) {
+            if (level > 0) this.downsample(levelTerrain[level - 1], levelTerrain[level], chunkSize >> level);
+            this.writeChunk(levelImages[level], levelTerrain[level], chunkSize >> level, squareX, squareY);
+        }
+
+    }
+
+    private void downsample(byte[] fineTerrain, byte[] coarseTerrain, int coarseSize) {
+
+        // Each coarse tile takes the most common terrain of the 2x2 block of fine tiles it covers; ties go to the higher
+        // ordinal, so that coastlines (and small islands) survive being shrunk rather than washing away.
+        int fineSize = coarseSize * 2;
+        for (int y = 0; y < coarseSize; y++) {
+            for (int x = 0; x < coarseSize; x++) {
+
+                int fine = (y * 2 * fineSize) + (x * 2);
+                terrainCounts[fineTerrain[fine]]++;
+                terrainCounts[fineTerrain[fine + 1]]++;
+                terrainCounts[fineTerrain[fine + fineSize]]++;
+                terrainCounts[fineTerrain[fine + fineSize + 1]]++;
+
+                int majority = 0;
+                for (int terrain = 1; terrain < terrainCounts.length; terrain++) {
+                    if (terrainCounts[terrain] >= terrainCounts[majority]) majority = terrain;
+                }
+                coarseTerrain[(y * coarseSize) + x] = (byte) majority;
+                Arrays.fill(terrainCounts, 0);
+
+            }
+        }
+
+    }
+
+    private void writeChunk(PImage image, byte[] terrain, int size, int squareX, int squareY) {
+
+        int imageX = squareX * size, imageY = squareY * size;
+        for (int y = 0; y < size; y++) {
+            int pixel = ((imageY + y) * image.width) + imageX;
+            for (int x = 0; x < size; x++) image.pixels[pixel + x] = terrainColours[terrain[(y * size) + x]];
+        }
+        image.updatePixels(imageX, imageY, size, size); // Only the chunk's pixels have changed.
+
+    }
+
+    public void cycleZoom() {
+        zoomLevel = (zoomLevel + 1) % numLevels; // Zooms out a level at a time, then back in to a pixel per tile.
+    }
+
+
+    // ########################################################################
+    // Minimap Display Methods:
+    // ########################################################################
+
+    public void display(float x, float y, int size, float focusX, float focusY, float viewWidth, float viewHeight) {
+
+        // Backdrop for the unexplored (transparent) parts of the minimap.
+        Game.sketch.fill(GameConfig.SHOP_BACK_COL);
+        Game.sketch.stroke(0);
+        Game.sketch.strokeWeight(3);
+        Game.sketch.rect(x, y, size, size);
+        Game.sketch.strokeWeight(1);
+
+        PImage image = levelImages[zoomLevel];
+
+        // Pixels of the current level around the focus (given in world co-ordinates, so shifted onto the chunk tiles the
+        // images are laid out by), clipped to the covered square.
+        float pixelsPerWorld = 1.0f / ((float) GameConfig.MAP_TILE_SIZE * (1 << zoomLevel));
+        float focusPixelX = (focusX * pixelsPerWorld) + ((float) (worldTileOffset - originTile) / (1 << zoomLevel));
+        float focusPixelY = (focusY * pixelsPerWorld) + ((float) (worldTileOffset - originTile) / (1 << zoomLevel));
+        int srcX = (int) focusPixelX - (size / 2), srcY = (int) focusPixelY - (size / 2);
+        int srcXStart = max(srcX, 0), srcXEnd = min(srcX + size, image.width);
+        int srcYStart = max(srcY, 0), srcYEnd = min(srcY + size, image.height);
+
+        // The whole view is a single blit of the level's image, a pixel of the image to a pixel of the screen.
+        if (srcXEnd > srcXStart && srcYEnd > srcYStart) {
+            Game.sketch.image(image, x + (srcXStart - srcX), y + (srcYStart - srcY), srcXEnd - srcXStart, srcYEnd - srcYStart,
+                              srcXStart, srcYStart, srcXEnd, srcYEnd);
+        }
+
+        // Outline of the view around the focus (i.e., the screen), clipped to the minimap.
+        float viewX = constrain(x + (focusPixelX - srcX) - (viewWidth * pixelsPerWorld / 2), x, x + size);
+        float viewY = constrain(y + (focusPixelY - srcY) - (viewHeight * pixelsPerWorld / 2), y, y + size);
+        float viewXEnd = constrain(x + (focusPixelX - srcX) + (viewWidth * pixelsPerWorld / 2), x, x + size);
+        float viewYEnd = constrain(y + (focusPixelY - srcY) + (viewHeight * pixelsPerWorld / 2), y, y + size);
+        Game.sketch.noFill();
+        Game.sketch.stroke(255);
+        Game.sketch.rect(viewX, viewY, viewXEnd - viewX, viewYEnd - viewY);
+
+    }
+
+    public void displayMarker(float x, float y, int size, float focusX, float focusY, float markerX, float markerY, int colour) {
+
+        // Dot at the given world position, placed relative to the focus the minimap was displayed around.
+        float pixelsPerWorld = 1.0f / ((float) GameConfig.MAP_TILE_SIZE * (1 << zoomLevel));
+        float markerPixelX = x + (size / 2f) + ((markerX - focusX) * pixelsPerWorld);
+        float markerPixelY = y + (size / 2f) + ((markerY - focusY) * pixelsPerWorld);
+        if (markerPixelX < x || markerPixelX > x + size || markerPixelY < y || markerPixelY > y + size) return;
+
+        Game.sketch.fill(colour);
+        Game.sketch.noStroke();
+        Game.sketch.circle(markerPixelX, markerPixelY, 5);
+
+    }
+
+
+    // ########################################################################
+    // Minimap Getters:
+    // ########################################################################
+
+    public int getZoomLevel() {
+        return zoomLevel;
+    }
+
+    public int getNumLevels() {
+        return numLevels;
+    }
+
+    public int getNumExplored() {
+        return numExplored;
+    }
+
+
+}
@@ -0,0 +1,123 @@
+import java.util.Random;
+
+import static processing.core.PConstants.DEG_TO_RAD;
+
+public class MapNoise {
+
+
+    // ########################################################################
+    // Noise Attributes:
+    // ########################################################################
+
+    // Same lattice layout as Processing's noise(), so a given seed generates the same world as PApplet.noiseSeed() did.
+    private static final int LATTICE_Y_WRAP_BITS = 4; // Shift applied to y when hashing into the lattice table.
+    private static final int LATTICE_Y_WRAP = 1 << LATTICE_Y_WRAP_BITS; // Offset between neighbouring lattice rows.
+    private static final int LATTICE_MASK = 4095; // Lattice table is 4096 entries, so indices wrap with a mask.
+
+    private static final int OCTAVES = 4; // Number of octaves summed, each at double the frequency of the last.
+    private static final float AMP_FALLOFF = 0.5f; // Reduction in amplitude per octave.
+
+    private static final int COS_TABLE_PI = 360; // Index into the cosine table corresponding to an angle of PI.
+    private static final int COS_TABLE_LENGTH = 2 * COS_TABLE_PI; // Cosine table covers a full turn in half degrees.
+
+    private final float[] lattice; // Seeded table of random values at the integer lattice points.
+    private final float[] cosTable; // Cosine lookup table used for the smoothing curve between lattice points.
+
+    private final float scale; // Frequency applied to tile co-ordinates when sampling.
+
+
+    // ########################################################################
+    // Noise Constructors:
+    // ########################################################################
+
+    public MapNoise(long seed, float scale) {
+
+        this.scale = scale;
+
+        // All state is created up-front and never modified, so the noise can be sampled from any thread.
+        Random latticeRandom = new Random(seed);
+        this.lattice = new float[LATTICE_MASK + 1];
+        for (int i = 0; i < this.lattice.length; i++) this.lattice[i] = latticeRandom.nextFloat();
+
+        this.cosTable = new float[COS_TABLE_LENGTH];
+        for (int i = 0; i < this.cosTable.length; i++) this.cosTable[i] = (float) Math.cos(i * DEG_TO_RAD * 0.5f);
+
+    }
+
+
+    // ########################################################################
+    // Noise Sampling Methods:
+    // ########################################################################
+
+    public float noise(float x, float y) {
+
+        // Noise is mirrored about the axes, as in Processing.
+        if (x < 0) x = -x;
+        if (y < 0) y = -y;
+
+        int xi = (int) x, yi = (int) y;
+        float xf = x - xi, yf = y - yi;
+
+        float result = 0;
+        float amplitude = 0.5f;
+
+        for (int octave = 0; octave < OCTAVES; octave++) {
+
+            int offset = xi + (yi << LATTICE_Y_WRAP_BITS);
+
+            float xFade = this.fade(xf);
+            float yFade = this.fade(yf);
+
+            // Bilinear interpolation (using the faded fractions) between the four surrounding lattice values.
+            float top = this.lattice[offset & LATTICE_MASK];
+            top += xFade * (this.lattice[(offset + 1) & LATTICE_MASK] - top);
+            float bottom = this.lattice[(offset + LATTICE_Y_WRAP) & LATTICE_MASK];
+            bottom += xFade * (this.lattice[(offset + LATTICE_Y_WRAP + 1) & LATTICE_MASK] - bottom);
+            top += yFade * (bottom - top);
+
+            result += top * amplitude;
+            amplitude *= AMP_FALLOFF;
+
+            // Next octave is at double the frequency.
+            xi <<= 1;
+            xf *= 2;
+            yi <<= 1;
+            yf *= 2;
+
+            if (xf >= 1.0f) {
+                xi++;
+                xf--;
+            }
+            if (yf >= 1.0f) {
+                yi++;
+                yf--;
+            }
+
+        }
+
+        return result;
+
+    }
+
+    public float sample(int tileX, int tileY) {
+        return this.noise(tileX * this.scale, tileY * this.scale); // Noise value at the given tile co-ordinate.
+    }
+
+    public void fillRegion(int x0, int y0, int width, int height, float[] out) {
+
+        // Batch sample a rectangle of tile co-ordinates into a row-major output array (no allocation).
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * width;
+            for (int x = 0; x < width; x++) {
+                out[rowStart + x] = this.sample(x0 + x, y0 + y);
+            }
+        }
+
+    }
+
+    private float fade(float t) {
+        return 0.5f * (1.0f - this.cosTable[(int) (t * COS_TABLE_PI) % COS_TABLE_LENGTH]); // Cosine smoothing curve.
+    }
+
+
+}
@@ -0,0 +1,662 @@
+import processing.core.PVector;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import static processing.core.PApplet.abs;
+import static processing.core.PApplet.max;
+import static processing.core.PApplet.min;
+
+public class MapPathfinder {
+
+
+    // ########################################################################
+    // Pathfinder Attributes:
+    // ########################################################################
+
+    private final Map map; // Reference to the game map, whose water tiles are searched over.
+
+    static final PVector[] NO_PATH = new PVector[0]; // Result of searches without a water route between start and goal.
+
+    private static final int WIDE_ENTRANCE = 6; // Runs of open border at least this long get an entrance at either end.
+    private static final int[] ACROSS_COL = {-1, 1, 0, 0}, ACROSS_ROW = {0, 0, -1, 1}; // Step across the left, right, top and bottom border.
+
+    private final int mapGridWidth, mapGridHeight;
+    private final int clusterSize = GameConfig.MAP_PATH_CLUSTER_SIZE; // Width and height of a cluster in tiles.
+    private int windowCol, windowRow; // World tile at map grid column and row 0, as of the last graph refresh.
+
+    // Abstract graph: nodes are entrance tiles either side of the borders between clusters, with edges across borders and
+    // between the entrances of a cluster that can reach each other without leaving it. Clusters are anchored to the world
+    // (cluster x covers world columns x * size to (x + 1) * size - 1) and clipped to the map grid, so scrolling only
+    // rebuilds the clusters whose tiles changed. They are held in a ring of slots, indexed by world cluster modulo the ring.
+    private final int ringCols, ringRows; // Slots along each axis; one more than the clusters the map grid can overlap.
+    private final int numSlots;
+    private final int maxClusterNodes; // Most entrances a cluster can have (every other tile of each border).
+    private final int[] slotClusterX, slotClusterY; // World cluster held in each slot.
+    // World tiles each slot's cluster was built from: the cluster within the map grid, plus the tiles across its borders.
+    private final int[] slotColStart, slotColEnd, slotRowStart, slotRowEnd;
+    private final boolean[] slotDirty; // Whether the cluster in each slot has new tiles since it was built.
+    private final int[] slotNumNodes, slotNumEdges;
+    private boolean graphDirty = true; // Whether any slot may need rebuilding before the next search.
+
+    // Nodes of the cluster in a slot are numbered from slot * maxClusterNodes, in the order they were added.
+    private final int[] nodeCol, nodeRow; // World tile of each node.
+    private final int[] nodeAcross; // Bit per border (left, right, top, bottom) with an entrance across it from the node.
+    private final int[] edgeCost; // Steps from each node to each node of its cluster within it (-1 if none), node-major.
+
+    private int numNodes; // Nodes of the clusters overlapping the map grid.
+    private int numEdges;
+    private long numClusterBuilds; // Number of times a cluster has been (re)built.
+
+    // Scratch space for searches.
+    private final int[] tileDist; // Steps from the source of a breadth-first search within a cluster (-1 if not reached).
+    private final int[] tileParent; // Previous tile on the way from that source.
+    private final int[] tileQueue;
+    private final int[] nodeCost; // Best known steps from the start to each node.
+    private final int[] nodeGoalDist; // Steps from each node of the goal cluster to the goal (-1 if not reached).
+    private final int[] nodeParent; // Previous node on the best known route (-1 if entered from the start).
+    private final boolean[] nodeClosed;
+    private int[] heapNodes = new int[256], heapCosts = new int[256]; // Binary min-heap of nodes by estimated route cost.
+    private int heapSize;
+    private int[] pathTiles; // Tiles of the refined route, from start to goal.
+    private int pathLength;
+
+    // Recently found routes keyed by the slots of their start and goal cluster, in least-recently-used order.
+    private final LinkedHashMap<Integer, CachedPath> pathCache;
+
+    private long numSearches; // Number of routes searched for.
+    private long numCacheHits; // Number of routes served from the cache.
+    private long numPruned; // Number of routes ruled out by region labels, without searching.
+
+    private static final class CachedPath {
+
+        final int startCol, startRow; // World tile the route was searched from; other ships must be able to reach it.
+        final int startClusterX, startClusterY, goalClusterX, goalClusterY; // World clusters the route is between.
+        final int clusterXStart, clusterXEnd, clusterYStart, clusterYEnd; // World clusters the route passes through.
+        final PVector[] waypoints;
+
+        CachedPath(int startCol, int startRow, int startClusterX, int startClusterY, int goalClusterX, int goalClusterY,
+                   int clusterXStart, int clusterXEnd, int clusterYStart, int clusterYEnd, PVector[] waypoints) {
+            this.startCol = startCol;
+            this.startRow = startRow;
+            this.startClusterX = startClusterX;
+            this.startClusterY = startClusterY;
+            this.goalClusterX = goalClusterX;
+            this.goalClusterY = goalClusterY;
+            this.clusterXStart = clusterXStart;
+            this.clusterXEnd = clusterXEnd;
+            this.clusterYStart = clusterYStart;
+            this.clusterYEnd = clusterYEnd;
+            this.waypoints = waypoints;
+        }
+
+        boolean overlaps(int clusterXStart, int clusterXEnd, int clusterYStart, int clusterYEnd) {
+            return clusterXStart <= this.clusterXEnd && clusterXEnd >= this.clusterXStart &&
+                   clusterYStart <= this.clusterYEnd && clusterYEnd >= this.clusterYStart;
+        }
+
+    }
+
+
+    // ########################################################################
+    // Pathfinder Constructors:
+    // ########################################################################
+
+    public MapPathfinder(Map map) {
+
+        this.map = map; // Reference to the game map.
+
+        this.mapGridWidth = map.getMapGridWidth();
+        this.mapGridHeight = map.getMapGridHeight();
+
+        // A map grid of width w overlaps at most w / size + 2 world clusters along that axis, wherever it is scrolled to.
+        this.ringCols = (mapGridWidth / clusterSize) + 2;
+        this.ringRows = (mapGridHeight / clusterSize) + 2;
+        this.numSlots = ringCols * ringRows;
+        this.maxClusterNodes = 4 * ((clusterSize + 1) / 2);
+
+        this.slotClusterX = new int[numSlots];
+        this.slotClusterY = new int[numSlots];
+        this.slotColStart = new int[numSlots];
+        this.slotColEnd = new int[numSlots];
+        this.slotRowStart = new int[numSlots];
+        this.slotRowEnd = new int[numSlots];
+        this.slotDirty = new boolean[numSlots];
+        Arrays.fill(slotDirty, true); // Nothing has been built yet.
+        this.slotNumNodes = new int[numSlots];
+        this.slotNumEdges = new int[numSlots];
+
+        this.nodeCol = new int[numSlots * maxClusterNodes];
+        this.nodeRow = new int[numSlots * maxClusterNodes];
+        this.nodeAcross = new int[numSlots * maxClusterNodes];
+        this.edgeCost = new int[numSlots * maxClusterNodes * maxClusterNodes];
+
+        this.tileDist = new int[mapGridWidth * mapGridHeight];
+        this.tileParent = new int[mapGridWidth * mapGridHeight];
+        this.tileQueue = new int[mapGridWidth * mapGridHeight];
+        this.nodeCost = new int[numSlots * maxClusterNodes];
+        this.nodeGoalDist = new int[numSlots * maxClusterNodes];
+        this.nodeParent = new int[numSlots * maxClusterNodes];
+        this.nodeClosed = new boolean[numSlots * maxClusterNodes];
+        this.pathTiles = new int[mapGridWidth + mapGridHeight];
+
+        // Access ordering makes the eldest entry the least recently used route, which is evicted once over capacity.
+        this.pathCache = new LinkedHashMap<>(GameConfig.MAP_PATH_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(java.util.Map.Entry<Integer, CachedPath> eldest) {
+                return this.size() > GameConfig.MAP_PATH_CACHE_SIZE;
+            }
+        };
+
+    }
+
+
+    // ########################################################################
+    // Pathfinder Update Methods:
+    // ########################################################################
+
+    public void invalidate(int col, int row, int width, int height) {
+
+        // The given rectangle of map grid tiles is new, so the clusters overlapping it (or bordering it, whose entrances
+        // depend on the tiles across their borders) are rebuilt before the next search, and cached routes over them dropped.
+        // Terrain is fixed to world tiles, so every other cluster (and route) still holds; routes already handed out are in
+        // world co-ordinates, so ships may keep following them.
+        int clusterXStart = Math.floorDiv(map.worldCol(col) - 1, clusterSize);
+        int clusterXEnd = Math.floorDiv(map.worldCol(col + width), clusterSize);
+        int clusterYStart = Math.floorDiv(map.worldRow(row) - 1, clusterSize);
+        int clusterYEnd = Math.floorDiv(map.worldRow(row + height), clusterSize);
+
+        for (int clusterY = clusterYStart; clusterY <= clusterYEnd; clusterY++) {
+            for (int clusterX = clusterXStart; clusterX <= clusterXEnd; clusterX++) {
+                int slot = this.getSlot(clusterX, clusterY);
+                if (slotClusterX[slot] == clusterX && slotClusterY[slot] == clusterY) slotDirty[slot] = true;
+            }
+        }
+        pathCache.values().removeIf(cached -> cached.overlaps(clusterXStart, clusterXEnd, clusterYStart, clusterYEnd));
+        graphDirty = true;
+
+    }
+
+    private void refreshGraph() {
+
+        // Rebuild the clusters overlapping the map grid that are new to their slot, have new tiles, or are now clipped
+        // differently by the edges of the map grid (which move as it scrolls).
+        windowCol = map.worldCol(0);
+        windowRow = map.worldRow(0);
+        int windowColEnd = windowCol + mapGridWidth, windowRowEnd = windowRow + mapGridHeight;
+
+        numNodes = 0;
+        numEdges = 0;
+        for (int clusterY = Math.floorDiv(windowRow, clusterSize); clusterY * clusterSize < windowRowEnd; clusterY++) {
+            for (int clusterX = Math.floorDiv(windowCol, clusterSize); clusterX * clusterSize < windowColEnd; clusterX++) {
+
+                int slot = this.getSlot(clusterX, clusterY);
+                int colStart = max((clusterX * clusterSize) - 1, windowCol), colEnd = min(((clusterX + 1) * clusterSize) + 1, windowColEnd);
+                int rowStart = max((clusterY * clusterSize) - 1, windowRow), rowEnd = min(((clusterY + 1) * clusterSize) + 1, windowRowEnd);
+                if (slotDirty[slot] || slotClusterX[slot] != clusterX || slotClusterY[slot] != clusterY ||
+                        slotColStart[slot] != colStart || slotColEnd[slot] != colEnd ||
+                        slotRowStart[slot] != rowStart || slotRowEnd[slot] != rowEnd) {
+                    slotClusterX[slot] = clusterX;
+                    slotClusterY[slot] = clusterY;
+                    slotColStart[slot] = colStart;
+                    slotColEnd[slot] = colEnd;
+                    slotRowStart[slot] = rowStart;
+                    slotRowEnd[slot] = rowEnd;
+                    this.buildCluster(slot);
+                }
+
+                numNodes += slotNumNodes[slot];
+                numEdges += slotNumEdges[slot];
+
+            }
+        }
+
+        graphDirty = false;
+
+    }
+
+    private void buildCluster(int slot) {
+
+        slotDirty[slot] = false;
+        slotNumNodes[slot] = 0;
+        slotNumEdges[slot] = 0;
+        numClusterBuilds++;
+
+        // Entrances across each border with a neighbouring cluster inside the map grid (i.e., where the tiles the cluster
+        // was built from extend past the cluster itself).
+        int colStart = this.getClusterColStart(slot), colEnd = this.getClusterColEnd(slot);
+        int rowStart = this.getClusterRowStart(slot), rowEnd = this.getClusterRowEnd(slot);
+        if (slotColStart[slot] < colStart) this.addBorderEntrances(slot, colStart, rowStart, 0, 1, rowEnd - rowStart, 0);
+        if (slotColEnd[slot] > colEnd) this.addBorderEntrances(slot, colEnd - 1, rowStart, 0, 1, rowEnd - rowStart, 1);
+        if (slotRowStart[slot] < rowStart) this.addBorderEntrances(slot, colStart, rowStart, 1, 0, colEnd - colStart, 2);
+        if (slotRowEnd[slot] > rowEnd) this.addBorderEntrances(slot, colStart, rowEnd - 1, 1, 0, colEnd - colStart, 3);
+
+        // Connect the entrances of the cluster that can reach one another within it.
+        int firstNode = slot * maxClusterNodes, lastNode = firstNode + slotNumNodes[slot];
+        for (int from = firstNode; from < lastNode; from++) {
+            this.searchCluster(slot, this.getNodeTile(from));
+            for (int to = firstNode; to < lastNode; to++) {
+                int dist = (to == from) ? -1 : tileDist[this.getNodeTile(to)];
+                edgeCost[(from * maxClusterNodes) + (to - firstNode)] = dist;
+                if (dist > 0) slotNumEdges[slot]++;
+            }
+        }
+
+    }
+
+    private void addBorderEntrances(int slot, int col, int row, int colStep, int rowStep, int length, int across) {
+
+        // Walk the border from the given world tile, placing entrances on runs where the tiles either side are water.
+        // The neighbouring cluster walks the same border in the same direction, so places its entrances opposite these.
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+
+            int borderCol = col + (i * colStep), borderRow = row + (i * rowStep);
+            boolean open = i < length && this.isWaterAtWorldTile(borderCol, borderRow) &&
+                                         this.isWaterAtWorldTile(borderCol + ACROSS_COL[across], borderRow + ACROSS_ROW[across]);
+            if (open && runStart < 0) runStart = i;
+            if (open || runStart < 0) continue;
+
+            // End of a run; narrow runs get one entrance in the middle, wide runs one at either end.
+            int runEnd = i - 1;
+            if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+                this.addEntrance(slot, col + (colStep * runStart), row + (rowStep * runStart), across);
+                this.addEntrance(slot, col + (colStep * runEnd), row + (rowStep * runEnd), across);
+            } else {
+                int mid = (runStart + runEnd) / 2;
+                this.addEntrance(slot, col + (colStep * mid), row + (rowStep * mid), across);
+            }
+            runStart = -1;
+
+        }
+
+    }
+
+    private void addEntrance(int slot, int col, int row, int across) {
+
+        // Tiles on the corner of a cluster can be on two borders, so are a single node with an entrance across each.
+        int node = this.getNodeAt(slot, col, row);
+        if (node < 0) {
+            node = (slot * maxClusterNodes) + slotNumNodes[slot]++;
+            nodeCol[node] = col;
+            nodeRow[node] = row;
+            nodeAcross[node] = 0;
+        }
+        nodeAcross[node] |= 1 << across;
+        slotNumEdges[slot]++;
+
+    }
+
+    private int getNodeAt(int slot, int col, int row) {
+
+        // Node of the cluster in the given slot at the given world tile (-1 if none).
+        int firstNode = slot * maxClusterNodes, lastNode = firstNode + slotNumNodes[slot];
+        for (int node = firstNode; node < lastNode; node++) {
+            if (nodeCol[node] == col && nodeRow[node] == row) return node;
+        }
+        return -1;
+
+    }
+
+
+    // ########################################################################
+    // Pathfinder Search Methods:
+    // ########################################################################
+
+    public PVector[] findPath(float fromX, float fromY, float toX, float toY) {
+
+        // Water route from one world position to another, as world positions of waypoints to seek in turn (excluding the
+        // start). The returned array is shared between callers, so must not be modified.
+        // NO_PATH if either position is outside the map grid, or no route exists.
+
+        int startCol = map.tileColFloor(fromX), startRow = map.tileRowFloor(fromY);
+        int goalCol = map.tileColFloor(toX), goalRow = map.tileRowFloor(toY);
+        if (!map.isInMapGrid(startCol, startRow) || !map.isInMapGrid(goalCol, goalRow)) return NO_PATH;
+
+        // Different bodies of water (or land at either end) can never be joined by a route.
+        if (!map.getRegionLabels().sameRegion(startCol, startRow, goalCol, goalRow) ||
+                map.isLandAtMapGridCoord(startCol, startRow)) {
+            numPruned++;
+            return NO_PATH;
+        }
+
+        if (graphDirty) this.refreshGraph();
+
+        int startTile = (startRow * mapGridWidth) + startCol, goalTile = (goalRow * mapGridWidth) + goalCol;
+        int startSlot = this.getSlotOfTile(startTile), goalSlot = this.getSlotOfTile(goalTile);
+
+        // Ships heading between the same clusters share a route, as long as they can reach where it was searched from.
+        // Slots are re-used as the map grid scrolls, so the cached route must also be between the same world clusters.
+        int cacheKey = (startSlot * numSlots) + goalSlot;
+        CachedPath cached = pathCache.get(cacheKey);
+        if (cached != null && cached.startClusterX == slotClusterX[startSlot] && cached.startClusterY == slotClusterY[startSlot] &&
+                cached.goalClusterX == slotClusterX[goalSlot] && cached.goalClusterY == slotClusterY[goalSlot]) {
+            this.searchCluster(startSlot, startTile);
+            int cachedCol = cached.startCol - windowCol, cachedRow = cached.startRow - windowRow;
+            if (map.isInMapGrid(cachedCol, cachedRow) && tileDist[(cachedRow * mapGridWidth) + cachedCol] >= 0) {
+                numCacheHits++;
+                return cached.waypoints;
+            }
+        }
+
+        numSearches++;
+        PVector[] waypoints = this.searchPath(startTile, startSlot, goalTile, goalSlot) ? this.getWaypoints() : NO_PATH;
+
+        // Remember the clusters the route passes through, so it is dropped if any of them get new tiles.
+        int clusterXStart = min(slotClusterX[startSlot], slotClusterX[goalSlot]), clusterXEnd = max(slotClusterX[startSlot], slotClusterX[goalSlot]);
+        int clusterYStart = min(slotClusterY[startSlot], slotClusterY[goalSlot]), clusterYEnd = max(slotClusterY[startSlot], slotClusterY[goalSlot]);
+        for (int i = 0; waypoints != NO_PATH && i < pathLength; i++) {
+            int clusterX = Math.floorDiv(windowCol + (pathTiles[i] % mapGridWidth), clusterSize);
+            int clusterY = Math.floorDiv(windowRow + (pathTiles[i] / mapGridWidth), clusterSize);
+            clusterXStart = min(clusterXStart, clusterX);
+            clusterXEnd = max(clusterXEnd, clusterX);
+            clusterYStart = min(clusterYStart, clusterY);
+            clusterYEnd = max(clusterYEnd, clusterY);
+        }
+        pathCache.put(cacheKey, new CachedPath(windowCol + startCol, windowRow + startRow,
+                slotClusterX[startSlot], slotClusterY[startSlot], slotClusterX[goalSlot], slotClusterY[goalSlot],
+                clusterXStart, clusterXEnd, clusterYStart, clusterYEnd, waypoints));
+
+        return waypoints;
+
+    }
+
+    private boolean searchPath(int startTile, int startSlot, int goalTile, int goalSlot) {
+
+        // Fills pathTiles with the route from the start to the goal tile, returning whether there is one.
+        pathLength = 0;
+        this.appendTile(startTile);
+        if (map.isLandAtMapGridCoord(startTile % mapGridWidth, startTile / mapGridWidth)) return false;
+        if (map.isLandAtMapGridCoord(goalTile % mapGridWidth, goalTile / mapGridWidth)) return false;
+
+        // Within a single cluster, a route that stays inside it needs no abstract search.
+        this.searchCluster(startSlot, startTile);
+        if (startSlot == goalSlot && tileDist[goalTile] >= 0) {
+            this.appendClusterRoute(startTile, goalTile);
+            return true;
+        }
+
+        Arrays.fill(nodeCost, Integer.MAX_VALUE);
+        Arrays.fill(nodeClosed, false);
+        heapSize = 0;
+
+        // The start connects to the entrances of its cluster that it can reach.
+        int startFirstNode = startSlot * maxClusterNodes;
+        for (int node = startFirstNode; node < startFirstNode + slotNumNodes[startSlot]; node++) {
+            int dist = tileDist[this.getNodeTile(node)];
+            if (dist < 0) continue;
+            nodeCost[node] = dist;
+            nodeParent[node] = -1;
+            this.pushHeap(node, dist + this.getHeuristic(this.getNodeTile(node), goalTile));
+        }
+
+        // The goal connects to the entrances of its cluster that can reach it.
+        Arrays.fill(nodeGoalDist, -1);
+        this.searchCluster(goalSlot, goalTile);
+        int goalFirstNode = goalSlot * maxClusterNodes;
+        for (int node = goalFirstNode; node < goalFirstNode + slotNumNodes[goalSlot]; node++) {
+            nodeGoalDist[node] = tileDist[this.getNodeTile(node)];
+        }
+
+        // A* over the abstract graph; the heuristic (Manhattan distance) never overestimates the steps remaining.
+        int bestCost = Integer.MAX_VALUE, bestNode = -1;
+        while (heapSize > 0) {
+
+            if (heapCosts[0] >= bestCost) break; // No remaining node can lead to a shorter route.
+            int node = this.popHeap();
+            if (nodeClosed[node]) continue; // Stale entry; the node was already reached more cheaply.
+            nodeClosed[node] = true;
+
+            if (nodeGoalDist[node] >= 0 && nodeCost[node] + nodeGoalDist[node] < bestCost) {
+                bestCost = nodeCost[node] + nodeGoalDist[node];
+                bestNode = node;
+            }
+
+            // Edges to the entrances of the same cluster, then across its borders to the entrances of neighbouring clusters.
+            int slot = node / maxClusterNodes, firstNode = slot * maxClusterNodes;
+            for (int next = firstNode; next < firstNode + slotNumNodes[slot]; next++) {
+                int edge = edgeCost[(node * maxClusterNodes) + (next - firstNode)];
+                if (edge > 0) this.relaxEdge(node, next, edge, goalTile);
+            }
+            for (int across = 0; across < 4; across++) {
+                if ((nodeAcross[node] & (1 << across)) == 0) continue;
+                int nextCol = nodeCol[node] + ACROSS_COL[across], nextRow = nodeRow[node] + ACROSS_ROW[across];
+                int next = this.getNodeAt(this.getSlot(Math.floorDiv(nextCol, clusterSize), Math.floorDiv(nextRow, clusterSize)), nextCol, nextRow);
+                if (next >= 0) this.relaxEdge(node, next, 1, goalTile);
+            }
+
+        }
+
+        if (bestNode < 0) return false;
+
+        // Refine the abstract route (found backwards via parents) into tiles, one cluster at a time.
+        int numAbstract = 0;
+        for (int node = bestNode; node >= 0; node = nodeParent[node]) numAbstract++;
+        int[] route = new int[numAbstract];
+        for (int node = bestNode, i = numAbstract - 1; node >= 0; node = nodeParent[node]) route[i--] = node;
+
+        this.searchCluster(startSlot, startTile);
+        this.appendClusterRoute(startTile, this.getNodeTile(route[0]));
+        for (int i = 1; i < numAbstract; i++) {
+            int fromTile = this.getNodeTile(route[i - 1]), toTile = this.getNodeTile(route[i]);
+            int fromSlot = route[i - 1] / maxClusterNodes;
+            if (fromSlot != route[i] / maxClusterNodes) this.appendTile(toTile); // Across a border.
+            else {
+                this.searchCluster(fromSlot, fromTile);
+                this.appendClusterRoute(fromTile, toTile);
+            }
+        }
+        int lastTile = this.getNodeTile(route[numAbstract - 1]);
+        this.searchCluster(goalSlot, lastTile);
+        this.appendClusterRoute(lastTile, goalTile);
+
+        return true;
+
+    }
+
+    private void relaxEdge(int node, int next, int edgeCost, int goalTile) {
+        int cost = nodeCost[node] + edgeCost;
+        if (nodeClosed[next] || cost >= nodeCost[next]) return;
+        nodeCost[next] = cost;
+        nodeParent[next] = node;
+        this.pushHeap(next, cost + this.getHeuristic(this.getNodeTile(next), goalTile));
+    }
+
+    private void searchCluster(int slot, int sourceTile) {
+
+        // Breadth-first search over the water tiles of the cluster in the given slot, filling tileDist and tileParent within it.
+        int colStart = this.getClusterColStart(slot) - windowCol, colEnd = this.getClusterColEnd(slot) - windowCol;
+        int rowStart = this.getClusterRowStart(slot) - windowRow, rowEnd = this.getClusterRowEnd(slot) - windowRow;
+        for (int row = rowStart; row < rowEnd; row++) {
+            Arrays.fill(tileDist, (row * mapGridWidth) + colStart, (row * mapGridWidth) + colEnd, -1);
+        }
+
+        if (map.isLandAtMapGridCoord(sourceTile % mapGridWidth, sourceTile / mapGridWidth)) return;
+
+        int head = 0, tail = 0;
+        tileDist[sourceTile] = 0;
+        tileParent[sourceTile] = -1;
+        tileQueue[tail++] = sourceTile;
+
+        while (head < tail) {
+
+            int tile = tileQueue[head++];
+            int col = tile % mapGridWidth, row = tile / mapGridWidth;
+
+            // Visit the four orthogonal neighbours that are inside the cluster, water, and not yet reached.
+            for (int dir = 0; dir < 4; dir++) {
+                int nextCol = col + ((dir == 0) ? -1 : (dir == 1) ? 1 : 0);
+                int nextRow = row + ((dir == 2) ? -1 : (dir == 3) ? 1 : 0);
+                if (nextCol < colStart || nextCol >= colEnd || nextRow < rowStart || nextRow >= rowEnd) continue;
+                int next = (nextRow * mapGridWidth) + nextCol;
+                if (tileDist[next] >= 0 || map.isLandAtMapGridCoord(nextCol, nextRow)) continue;
+                tileDist[next] = tileDist[tile] + 1;
+                tileParent[next] = tile;
+                tileQueue[tail++] = next;
+            }
+
+        }
+
+    }
+
+    private void appendClusterRoute(int fromTile, int toTile) {
+
+        // Append the tiles after fromTile up to toTile, following the parents of the last search (which was from fromTile).
+        int segmentStart = pathLength;
+        for (int tile = toTile; tile != fromTile; tile = tileParent[tile]) this.appendTile(tile);
+
+        // The parents were followed backwards, so reverse the segment.
+        for (int i = segmentStart, j = pathLength - 1; i < j; i++, j--) {
+            int tile = pathTiles[i];
+            pathTiles[i] = pathTiles[j];
+            pathTiles[j] = tile;
+        }
+
+    }
+
+    private void appendTile(int tile) {
+        if (pathLength == pathTiles.length) pathTiles = Arrays.copyOf(pathTiles, pathLength * 2);
+        pathTiles[pathLength++] = tile;
+    }
+
+    private PVector[] getWaypoints() {
+
+        // Only tiles where the route turns (and the last tile) are needed to steer along it.
+        int numWaypoints = 0;
+        for (int i = 0; i < pathLength; i++) if (this.isWaypoint(i)) numWaypoints++;
+
+        PVector[] waypoints = new PVector[numWaypoints];
+        for (int i = 0, w = 0; i < pathLength; i++) {
+            if (!this.isWaypoint(i)) continue;
+            int col = pathTiles[i] % mapGridWidth, row = pathTiles[i] / mapGridWidth;
+            waypoints[w++] = new PVector(map.tileX(col) + (float) GameConfig.MAP_TILE_SIZE / 2,
+                                         map.tileY(row) + (float) GameConfig.MAP_TILE_SIZE / 2);
+        }
+
+        return waypoints;
+
+    }
+
+    private boolean isWaypoint(int i) {
+        if (i == 0) return false; // The start is where the ship already is.
+        if (i == pathLength - 1) return true;
+        // A turn is where the step into the tile differs from the step out of it.
+        return (pathTiles[i] - pathTiles[i - 1]) != (pathTiles[i + 1] - pathTiles[i]);
+    }
+
+
+    // ########################################################################
+    // Pathfinder Utility:
+    // ########################################################################
+
+    private int getSlot(int clusterX, int clusterY) {
+        return (Math.floorMod(clusterY, ringRows) * ringCols) + Math.floorMod(clusterX, ringCols); // Slot of a world cluster.
+    }
+
+    private int getSlotOfTile(int tile) {
+        // Slot of the cluster containing the given map grid tile.
+        int col = windowCol + (tile % mapGridWidth), row = windowRow + (tile / mapGridWidth);
+        return this.getSlot(Math.floorDiv(col, clusterSize), Math.floorDiv(row, clusterSize));
+    }
+
+    private int getNodeTile(int node) {
+        return ((nodeRow[node] - windowRow) * mapGridWidth) + (nodeCol[node] - windowCol); // Map grid tile of a node.
+    }
+
+    private int getClusterColStart(int slot) {
+        // World tiles of the cluster in the given slot that are within the map grid (the ends are exclusive).
+        return max(slotClusterX[slot] * clusterSize, windowCol);
+    }
+
+    private int getClusterColEnd(int slot) {
+        return min((slotClusterX[slot] + 1) * clusterSize, windowCol + mapGridWidth);
+    }
+
+    private int getClusterRowStart(int slot) {
+        return max(slotClusterY[slot] * clusterSize, windowRow);
+    }
+
+    private int getClusterRowEnd(int slot) {
+        return min((slotClusterY[slot] + 1) * clusterSize, windowRow + mapGridHeight);
+    }
+
+    private boolean isWaterAtWorldTile(int col, int row) {
+        return !map.isLandAtMapGridCoord(col - windowCol, row - windowRow);
+    }
+
+    private int getHeuristic(int tile, int goalTile) {
+        return abs((tile % mapGridWidth) - (goalTile % mapGridWidth)) + abs((tile / mapGridWidth) - (goalTile / mapGridWidth));
+    }
+
+    private void pushHeap(int node, int cost) {
+
+        if (heapSize == heapNodes.length) {
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            heapCosts = Arrays.copyOf(heapCosts, heapSize * 2);
+        }
+
+        // Sift the new entry up from the end of the heap.
+        int i = heapSize++;
+        while (i > 0 && heapCosts[(i - 1) / 2] > cost) {
+            heapNodes[i] = heapNodes[(i - 1) / 2];
+            heapCosts[i] = heapCosts[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heapNodes[i] = node;
+        heapCosts[i] = cost;
+
+    }
+
+    private int popHeap() {
+
+        int top = heapNodes[0];
+        int node = heapNodes[--heapSize], cost = heapCosts[heapSize];
+
+        // Sift the last entry down from the root.
+        int i = 0;
+        while (2 * i + 1 < heapSize) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heapCosts[child + 1] < heapCosts[child]) child++;
+            if (heapCosts[child] >= cost) break;
+            heapNodes[i] = heapNodes[child];
+            heapCosts[i] = heapCosts[child];
+            i = child;
+        }
+        heapNodes[i] = node;
+        heapCosts[i] = cost;
+
+        return top;
+
+    }
+
+
+    // ########################################################################
+    // Pathfinder Getters:
+    // ########################################################################
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    public int getNumEdges() {
+        return numEdges;
+    }
+
+    public long getNumClusterBuilds() {
+        return numClusterBuilds;
+    }
+
+    public long getNumSearches() {
+        return numSearches;
+    }
+
+    public long getNumCacheHits() {
+        return numCacheHits;
+    }
+
+    public long getNumPruned() {
+        return numPruned;
+    }
+
+
+}
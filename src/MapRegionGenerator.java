@@ -0,0 +1,155 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class MapRegionGenerator {
+
+
+    // ########################################################################
+    // Region Generator Attributes:
+    // ########################################################################
+
+    private final Map map; // Reference to the game map, which generates the terrain of each chunk.
+
+    private final int chunkSize = GameConfig.MAP_CHUNK_SIZE; // Width and height of a chunk in tiles.
+    private static final int CHUNKS_PER_TASK = 16; // Number of chunks below which a task stops splitting its work.
+
+    private int regionChunkX, regionChunkY; // World chunk co-ordinate of the top-left chunk in the region.
+    private int regionWidth, regionHeight; // Width and height of the region in chunks.
+
+    // Terrain ordinals of the region, stored chunk by chunk (each chunk row-major), so every chunk is contiguous.
+    private byte[] regionTerrain;
+
+    private int numThreads; // Number of threads used for the last generation.
+    private long generationNanos; // Time taken for the last generation.
+
+
+    // ########################################################################
+    // Region Generator Constructors:
+    // ########################################################################
+
+    public MapRegionGenerator(Map map) {
+        this.map = map; // Reference to the game map.
+    }
+
+
+    // ########################################################################
+    // Region Generator Generation Methods:
+    // ########################################################################
+
+    public void generate(int chunkX, int chunkY, int width, int height, int numThreads) {
+
+        this.regionChunkX = chunkX;
+        this.regionChunkY = chunkY;
+        this.regionWidth = width;
+        this.regionHeight = height;
+        this.regionTerrain = new byte[width * height * chunkSize * chunkSize];
+
+        // Use all available cores unless told otherwise.
+        this.numThreads = (numThreads > 0) ? numThreads : Runtime.getRuntime().availableProcessors();
+
+        // Split the chunks of the region between the threads of a fork-join pool.
+        // Each tile only depends on its own co-ordinate, so output is identical for any number of threads.
+        long startNanos = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(this.numThreads);
+        try {
+            pool.invoke(new ChunkRangeTask(this, 0, width * height));
+        } finally {
+            pool.shutdown();
+        }
+        this.generationNanos = System.nanoTime() - startNanos;
+
+    }
+
+    private void generateChunks(int chunkIndexStart, int chunkIndexEnd) {
+
+        // Scratch space for noise values, local to the task so that tasks do not share mutable state.
+        int chunkArea = chunkSize * chunkSize;
+        float[] noiseValues = new float[chunkArea];
+        byte[] chunk = new byte[chunkArea];
+
+        for (int chunkIndex = chunkIndexStart; chunkIndex < chunkIndexEnd; chunkIndex++) {
+
+            int chunkX = this.regionChunkX + (chunkIndex % this.regionWidth);
+            int chunkY = this.regionChunkY + (chunkIndex / this.regionWidth);
+
+            this.map.generateTerrainRegion(chunkX * chunkSize, chunkY * chunkSize, chunkSize, chunkSize, noiseValues, chunk);
+            System.arraycopy(chunk, 0, this.regionTerrain, chunkIndex * chunkArea, chunkArea);
+
+        }
+
+    }
+
+    private static final class ChunkRangeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L; // Tasks are never serialised, but RecursiveAction is Serializable.
+
+        private final MapRegionGenerator generator; // Generator whose region the chunks are generated into.
+        private final int chunkIndexStart, chunkIndexEnd; // Range of chunk indices (within the region) to generate.
+
+        ChunkRangeTask(MapRegionGenerator generator, int chunkIndexStart, int chunkIndexEnd) {
+            this.generator = generator;
+            this.chunkIndexStart = chunkIndexStart;
+            this.chunkIndexEnd = chunkIndexEnd;
+        }
+
+        @Override
+        protected void compute() {
+
+            // Small enough ranges are generated directly, otherwise split in half and generate both halves in parallel.
+            if (this.chunkIndexEnd - this.chunkIndexStart <= CHUNKS_PER_TASK) {
+                this.generator.generateChunks(this.chunkIndexStart, this.chunkIndexEnd);
+                return;
+            }
+
+            int chunkIndexMid = (this.chunkIndexStart + this.chunkIndexEnd) >>> 1;
+            invokeAll(new ChunkRangeTask(this.generator, this.chunkIndexStart, chunkIndexMid),
+                      new ChunkRangeTask(this.generator, chunkIndexMid, this.chunkIndexEnd));
+
+        }
+
+    }
+
+
+    // ########################################################################
+    // Region Generator Lookup Methods:
+    // ########################################################################
+
+    public boolean containsChunk(int chunkX, int chunkY) {
+
+        return this.regionTerrain != null &&
+               chunkX >= this.regionChunkX && chunkX < this.regionChunkX + this.regionWidth &&
+               chunkY >= this.regionChunkY && chunkY < this.regionChunkY + this.regionHeight;
+
+    }
+
+    public void copyChunk(int chunkX, int chunkY, byte[] chunk) {
+
+        // Chunks are contiguous in the region, so a pre-generated chunk is a single array copy.
+        int chunkIndex = ((chunkY - this.regionChunkY) * this.regionWidth) + (chunkX - this.regionChunkX);
+        System.arraycopy(this.regionTerrain, chunkIndex * chunk.length, chunk, 0, chunk.length);
+
+    }
+
+
+    // ########################################################################
+    // Region Generator Getters:
+    // ########################################################################
+
+    public long getNumTiles() {
+        return (long) this.regionWidth * this.regionHeight * chunkSize * chunkSize;
+    }
+
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    public float getGenerationMillis() {
+        return this.generationNanos / 1e6f;
+    }
+
+    public float getTilesPerSecond() {
+        return (this.generationNanos == 0) ? 0 : this.getNumTiles() / (this.generationNanos / 1e9f);
+    }
+
+
+}
@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+public class MapRegionLabels {
+
+
+    // ########################################################################
+    // Region Labels Attributes:
+    // ########################################################################
+
+    private final Map map; // Reference to the game map, whose land and water tiles are labelled.
+
+    private final int mapGridWidth, mapGridHeight;
+
+    // Union-find over the tiles that have been in the map grid, where neighbouring tiles of the same kind (land or water)
+    // share a region. Every newly generated tile gets a fresh node, so regions only ever merge; tiles that scrolled out
+    // still connect the regions they joined, as the world itself has not changed.
+    private final int[] slotNodes; // Node of the tile in each map grid slot (-1 before the first generation).
+    private final int[] parents; // Parent of each node (itself at the root of a region).
+    private final int[] sizes; // At the root of a region, the number of its tiles currently in the map grid.
+    private int numNodes; // Number of nodes handed out since the last compaction.
+    private int numCompactions; // Number of times the nodes ran out, and the map grid was labelled afresh.
+    private boolean joinAll; // Whether the whole map grid was reset by a compaction, so must be joined in full.
+
+
+    // ########################################################################
+    // Region Labels Constructors:
+    // ########################################################################
+
+    public MapRegionLabels(Map map, int nodesPerSlot) {
+
+        this.map = map; // Reference to the game map.
+
+        this.mapGridWidth = map.getMapGridWidth();
+        this.mapGridHeight = map.getMapGridHeight();
+
+        this.slotNodes = new int[mapGridWidth * mapGridHeight];
+        this.parents = new int[mapGridWidth * mapGridHeight * nodesPerSlot];
+        this.sizes = new int[mapGridWidth * mapGridHeight * nodesPerSlot];
+        Arrays.fill(slotNodes, -1);
+
+    }
+
+
+    // ########################################################################
+    // Region Labels Update Methods:
+    // ########################################################################
+
+    public void reset(int col, int row, int width, int height) {
+
+        // Every rectangle of a scroll is reset before any is joined, so that joins across rectangles (e.g., the column and
+        // row strips of a diagonal pan) never reach a slot that still holds the node of a tile that scrolled out.
+
+        // Once the nodes run out, start over by labelling the whole map grid (forgetting tiles no longer in it).
+        boolean compacting = numNodes + (width * height) > parents.length;
+        if (compacting) {
+            numNodes = 0;
+            numCompactions++;
+            joinAll = true;
+            col = 0;
+            row = 0;
+            width = mapGridWidth;
+            height = mapGridHeight;
+        }
+
+        // The newly generated tiles replace those that were in their slots, and start as regions of their own.
+        for (int y = row; y < row + height; y++) {
+            for (int x = col; x < col + width; x++) {
+                int slot = map.getMapGridSlot(x, y);
+                if (!compacting && slotNodes[slot] >= 0) sizes[this.find(slotNodes[slot])] -= 1; // Tile left the grid.
+                int node = numNodes++;
+                parents[node] = node;
+                sizes[node] = 1;
+                slotNodes[slot] = node;
+            }
+        }
+
+    }
+
+    public void join(int col, int row, int width, int height) {
+
+        // After a compaction every tile is new, so the whole map grid is joined (once; later rectangles are then joined again
+        // harmlessly, as their tiles are already in their regions).
+        if (joinAll) {
+            joinAll = false;
+            col = 0;
+            row = 0;
+            width = mapGridWidth;
+            height = mapGridHeight;
+        }
+
+        // Join each new tile with its neighbours of the same kind; the left and upper ones, plus those beyond the
+        // right and lower edges of the rectangle, cover every pair of neighbours involving a new tile.
+        for (int y = row; y < row + height; y++) {
+            for (int x = col; x < col + width; x++) {
+                if (x > 0) this.unionTiles(x, y, x - 1, y);
+                if (y > 0) this.unionTiles(x, y, x, y - 1);
+                if (x == col + width - 1 && x + 1 < mapGridWidth) this.unionTiles(x, y, x + 1, y);
+                if (y == row + height - 1 && y + 1 < mapGridHeight) this.unionTiles(x, y, x, y + 1);
+            }
+        }
+
+    }
+
+    private void unionTiles(int colA, int rowA, int colB, int rowB) {
+
+        if (map.isLandAtMapGridCoord(colA, rowA) != map.isLandAtMapGridCoord(colB, rowB)) return; // Land never meets water.
+
+        int rootA = this.find(slotNodes[map.getMapGridSlot(colA, rowA)]);
+        int rootB = this.find(slotNodes[map.getMapGridSlot(colB, rowB)]);
+        if (rootA == rootB) return;
+
+        // The larger region absorbs the smaller, keeping paths to the roots short.
+        if (sizes[rootA] < sizes[rootB]) {
+            int root = rootA;
+            rootA = rootB;
+            rootB = root;
+        }
+        parents[rootB] = rootA;
+        sizes[rootA] += sizes[rootB];
+
+    }
+
+    private int find(int node) {
+
+        // Root of the node's region, halving the path to it along the way.
+        while (parents[node] != node) {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+
+        return node;
+
+    }
+
+
+    // ########################################################################
+    // Region Labels Getters:
+    // ########################################################################
+
+    public boolean sameRegion(int colA, int rowA, int colB, int rowB) {
+
+        // Whether the two map grid tiles are connected through tiles of their kind (i.e., same island or body of water).
+        if (!map.isInMapGrid(colA, rowA) || !map.isInMapGrid(colB, rowB)) return false;
+        return this.find(slotNodes[map.getMapGridSlot(colA, rowA)]) == this.find(slotNodes[map.getMapGridSlot(colB, rowB)]);
+
+    }
+
+    public int getRegionSize(int col, int row) {
+
+        // Number of tiles of the tile's region that are currently in the map grid (0 outside of it).
+        if (!map.isInMapGrid(col, row)) return 0;
+        return sizes[this.find(slotNodes[map.getMapGridSlot(col, row)])];
+
+    }
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    public int getCapacity() {
+        return parents.length;
+    }
+
+    public int getNumCompactions() {
+        return numCompactions;
+    }
+
+
+}
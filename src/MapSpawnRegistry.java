@@ -0,0 +1,201 @@
+public class MapSpawnRegistry {
+
+
+    // ########################################################################
+    // Spawn Registry Attributes:
+    // ########################################################################
+
+    static final long NO_TILE = Long.MIN_VALUE; // Key of objects not spawned by the map (never a packed world tile).
+
+    static final byte LIVE = 1; // The tile's spawn is in the game; it must not spawn again while it is.
+    static final byte CLEARED = 2; // The tile's spawn was killed or collected; it must never spawn again.
+
+    private static final byte EMPTY = 0; // Unused slot in the table.
+
+    // Open-addressed (linear probing) table of packed world tile keys and their spawn states.
+    // Only tiles that actually spawned something are recorded. Before the table grows, cleared tiles further than the keep
+    // distance from the map grid are forgotten (so may spawn again if revisited), so its size is bounded by the live
+    // objects plus the cleared tiles near the map grid, rather than by how much of the world has been explored.
+    private long[] keys;
+    private byte[] states;
+
+    private int size; // Number of occupied slots.
+    private int numCleared; // Number of slots in the cleared state.
+    private long numEvicted; // Number of cleared tiles forgotten for being far from the map grid.
+
+    private final int keepDist; // Tiles beyond the map grid within which cleared tiles are kept.
+    private int windowXStart, windowXEnd, windowYStart, windowYEnd; // World tiles covered by the map grid (ends exclusive).
+
+
+    // ########################################################################
+    // Spawn Registry Constructors:
+    // ########################################################################
+
+    public MapSpawnRegistry(int initialCapacity, int keepDist) {
+
+        // Capacity is a power of two, so that the slot of a key is a simple mask of its hash.
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 16) - 1) << 1;
+        this.keys = new long[capacity];
+        this.states = new byte[capacity];
+        this.keepDist = keepDist;
+
+    }
+
+
+    // ########################################################################
+    // Spawn Registry Update Methods:
+    // ########################################################################
+
+    public void setWindow(int tileXStart, int tileYStart, int width, int height) {
+
+        // World tiles covered by the map grid, around which cleared tiles are kept.
+        this.windowXStart = tileXStart;
+        this.windowXEnd = tileXStart + width;
+        this.windowYStart = tileYStart;
+        this.windowYEnd = tileYStart + height;
+
+    }
+
+    public void markLive(long tileKey) {
+        this.put(tileKey, LIVE);
+    }
+
+    public void markCleared(long tileKey) {
+        this.put(tileKey, CLEARED);
+    }
+
+    public void release(long tileKey) {
+
+        int slot = this.findSlot(tileKey);
+        if (states[slot] == EMPTY) return; // Not registered.
+
+        if (states[slot] == CLEARED) numCleared--;
+        size--;
+
+        // Backward-shift deletion; move later entries of the probe sequence into the gap so lookups never stop early.
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; states[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hashSlot(keys[next], mask);
+            // The entry can fill the gap if its home slot is not (cyclically) between the gap and itself.
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                states[gap] = states[next];
+                gap = next;
+            }
+        }
+
+        states[gap] = EMPTY;
+
+    }
+
+    private void put(long tileKey, byte state) {
+
+        int slot = this.findSlot(tileKey);
+
+        if (states[slot] == EMPTY) {
+
+            // Before exceeding half capacity, forget the cleared tiles far from the map grid; grow only if that leaves the
+            // table over a quarter full, so that sweeps are at least a quarter of the capacity of insertions apart.
+            // Probe sequences stay short either way.
+            if ((size + 1) * 2 > keys.length) {
+                if (numCleared > 0) this.rehash(keys.length, true);
+                if ((size + 1) * 4 > keys.length) this.rehash(keys.length * 2, false);
+                slot = this.findSlot(tileKey);
+            }
+
+            keys[slot] = tileKey;
+            size++;
+
+        } else if (states[slot] == CLEARED) numCleared--;
+
+        states[slot] = state;
+        if (state == CLEARED) numCleared++;
+
+    }
+
+    private void rehash(int capacity, boolean evictFar) {
+
+        long[] oldKeys = keys;
+        byte[] oldStates = states;
+        keys = new long[capacity];
+        states = new byte[capacity];
+
+        // Re-insert occupied slots at their position in the new table, dropping far cleared tiles if evicting.
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStates[i] == EMPTY) continue;
+            if (evictFar && oldStates[i] == CLEARED && this.isFarFromWindow(oldKeys[i])) {
+                size--;
+                numCleared--;
+                numEvicted++;
+                continue;
+            }
+            int slot = this.findSlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            states[slot] = oldStates[i];
+        }
+
+    }
+
+
+    // ########################################################################
+    // Spawn Registry Utility:
+    // ########################################################################
+
+    private int findSlot(long tileKey) {
+
+        // Slot holding the given key, or the empty slot ending its probe sequence.
+        int mask = keys.length - 1;
+        int slot = hashSlot(tileKey, mask);
+        while (states[slot] != EMPTY && keys[slot] != tileKey) slot = (slot + 1) & mask;
+
+        return slot;
+
+    }
+
+    private boolean isFarFromWindow(long tileKey) {
+        int tileX = (int) (tileKey >> 32), tileY = (int) tileKey; // Unpack the co-ordinates packed by Map.packCoords().
+        return tileX < windowXStart - keepDist || tileX >= windowXEnd + keepDist ||
+               tileY < windowYStart - keepDist || tileY >= windowYEnd + keepDist;
+    }
+
+    private static int hashSlot(long tileKey, int mask) {
+        // Fibonacci hashing spreads neighbouring tiles (which differ only in their low bits) across the table.
+        return (int) ((tileKey * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+
+    // ########################################################################
+    // Spawn Registry Getters:
+    // ########################################################################
+
+    public byte getState(long tileKey) {
+        return states[this.findSlot(tileKey)]; // EMPTY if the tile is not registered.
+    }
+
+    public boolean isRegistered(long tileKey) {
+        return this.getState(tileKey) != EMPTY;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNumLive() {
+        return size - numCleared;
+    }
+
+    public int getNumCleared() {
+        return numCleared;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public long getNumEvicted() {
+        return numEvicted;
+    }
+
+
+}
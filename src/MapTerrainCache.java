@@ -0,0 +1,118 @@
+import java.util.LinkedHashMap;
+
+public class MapTerrainCache {
+
+
+    // ########################################################################
+    // Terrain Cache Attributes:
+    // ########################################################################
+
+    private final Map map; // Reference to the game map, which classifies the terrain of generated tiles.
+
+    private final int chunkSize = GameConfig.MAP_CHUNK_SIZE; // Width and height of a chunk in tiles.
+    private final float[] noiseValues; // Scratch space for the noise values of a chunk being generated.
+
+    // Chunks of classified terrain (as ordinals) keyed by their packed world chunk co-ordinates, in least-recently-used order.
+    private final LinkedHashMap<Long, byte[]> chunks;
+
+    private MapRegionGenerator pregenRegion; // Region of the world pre-generated at start-up, if any.
+
+    private long chunkHits; // Number of chunk lookups served from the cache.
+    private long chunkMisses; // Number of chunk lookups that required the chunk to be generated.
+
+
+    // ########################################################################
+    // Terrain Cache Constructors:
+    // ########################################################################
+
+    public MapTerrainCache(Map map) {
+
+        this.map = map; // Reference to the game map.
+        this.noiseValues = new float[chunkSize * chunkSize];
+
+        // Access ordering makes the eldest entry the least recently used chunk, which is evicted once over capacity.
+        this.chunks = new LinkedHashMap<>(GameConfig.MAP_CHUNK_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(java.util.Map.Entry<Long, byte[]> eldest) {
+                return this.size() > GameConfig.MAP_CHUNK_CACHE_SIZE;
+            }
+        };
+
+    }
+
+
+    // ########################################################################
+    // Terrain Cache Lookup Methods:
+    // ########################################################################
+
+    public byte[] getChunk(int chunkX, int chunkY) {
+
+        long chunkKey = Map.packCoords(chunkX, chunkY);
+
+        // Revisited regions of the world are served straight from the cache.
+        byte[] chunk = this.chunks.get(chunkKey);
+        if (chunk != null) {
+            this.chunkHits += 1;
+            return chunk;
+        }
+
+        // Otherwise, the chunk has not been seen recently, so generate and remember it.
+        this.chunkMisses += 1;
+        chunk = this.generateChunk(chunkX, chunkY);
+        this.chunks.put(chunkKey, chunk);
+
+        return chunk;
+
+    }
+
+    public void setPregenRegion(MapRegionGenerator pregenRegion) {
+        this.pregenRegion = pregenRegion;
+    }
+
+    public boolean containsChunk(long chunkKey) {
+        return this.chunks.containsKey(chunkKey); // Does not count as a use of the chunk (i.e., LRU order is unchanged).
+    }
+
+    public void insertChunk(long chunkKey, byte[] chunk) {
+        this.chunks.put(chunkKey, chunk); // Add a chunk generated elsewhere (e.g., prefetched by a background thread).
+    }
+
+    private byte[] generateChunk(int chunkX, int chunkY) {
+
+        // Chunk tiles are stored row-major, with the top-left tile of the chunk at index 0.
+        byte[] chunk = new byte[chunkSize * chunkSize];
+
+        // Chunks in the pre-generated region are simply copied out of it, rather than evaluating noise.
+        if (this.pregenRegion != null && this.pregenRegion.containsChunk(chunkX, chunkY)) {
+            this.pregenRegion.copyChunk(chunkX, chunkY, chunk);
+        } else {
+            this.map.generateTerrainRegion(chunkX * chunkSize, chunkY * chunkSize, chunkSize, chunkSize, this.noiseValues, chunk);
+        }
+
+        return chunk;
+
+    }
+
+
+    // ########################################################################
+    // Terrain Cache Getters:
+    // ########################################################################
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getNumChunks() {
+        return this.chunks.size();
+    }
+
+    public long getChunkHits() {
+        return chunkHits;
+    }
+
+    public long getChunkMisses() {
+        return chunkMisses;
+    }
+
+
+}
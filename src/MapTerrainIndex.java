@@ -0,0 +1,70 @@
+public class MapTerrainIndex {
+
+
+    // ########################################################################
+    // Terrain Index Attributes:
+    // ########################################################################
+
+    // Per terrain (by ordinal), the map grid slots currently holding that terrain, packed at the front of the array.
+    private final int[][] terrainSlots;
+    private final int[] terrainSlotCounts; // Number of slots held by each terrain.
+
+    private final int[] slotPositions; // Position of each slot within the list of its terrain (so removal is a swap).
+
+
+    // ########################################################################
+    // Terrain Index Constructors:
+    // ########################################################################
+
+    public MapTerrainIndex(int numSlots, int numTerrains) {
+
+        this.terrainSlots = new int[numTerrains][numSlots];
+        this.terrainSlotCounts = new int[numTerrains];
+        this.slotPositions = new int[numSlots];
+
+        // Every slot starts as the terrain with ordinal 0, matching a freshly allocated map grid.
+        for (int slot = 0; slot < numSlots; slot++) {
+            terrainSlots[0][slot] = slot;
+            slotPositions[slot] = slot;
+        }
+        terrainSlotCounts[0] = numSlots;
+
+    }
+
+
+    // ########################################################################
+    // Terrain Index Update Methods:
+    // ########################################################################
+
+    public void move(int slot, int oldTerrainOrdinal, int newTerrainOrdinal) {
+
+        if (oldTerrainOrdinal == newTerrainOrdinal) return; // Slot stays in the same list.
+
+        // Remove the slot from its old list by moving the last slot of that list into its position.
+        int[] oldSlots = terrainSlots[oldTerrainOrdinal];
+        int lastSlot = oldSlots[--terrainSlotCounts[oldTerrainOrdinal]];
+        oldSlots[slotPositions[slot]] = lastSlot;
+        slotPositions[lastSlot] = slotPositions[slot];
+
+        // Append the slot to the end of its new list.
+        int position = terrainSlotCounts[newTerrainOrdinal]++;
+        terrainSlots[newTerrainOrdinal][position] = slot;
+        slotPositions[slot] = position;
+
+    }
+
+
+    // ########################################################################
+    // Terrain Index Getters:
+    // ########################################################################
+
+    public int getNumSlots(int terrainOrdinal) {
+        return terrainSlotCounts[terrainOrdinal];
+    }
+
+    public int getSlot(int terrainOrdinal, int i) {
+        return terrainSlots[terrainOrdinal][i]; // The i-th slot (in no particular order) holding the given terrain.
+    }
+
+
+}
@@ -0,0 +1,100 @@
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class MapTerrainPrefetcher {
+
+
+    // ########################################################################
+    // Terrain Prefetcher Attributes:
+    // ########################################################################
+
+    private final Map map; // Reference to the game map, which generates the terrain of requested chunks.
+
+    private final int chunkSize = GameConfig.MAP_CHUNK_SIZE; // Width and height of a chunk in tiles.
+    private final float[] noiseValues; // Scratch space for noise values; only ever used by the worker thread.
+
+    private ThreadPoolExecutor worker; // Single background thread generating chunks (created on first request).
+
+    private final HashSet<Long> pendingChunks; // Chunks requested but not yet handed over; only used on the draw thread.
+    private final ConcurrentHashMap<Long, byte[]> readyChunks; // Chunks generated by the worker, awaiting hand-over.
+
+
+    // ########################################################################
+    // Terrain Prefetcher Constructors:
+    // ########################################################################
+
+    public MapTerrainPrefetcher(Map map) {
+
+        this.map = map; // Reference to the game map.
+        this.noiseValues = new float[chunkSize * chunkSize];
+
+        this.pendingChunks = new HashSet<>();
+        this.readyChunks = new ConcurrentHashMap<>();
+
+    }
+
+
+    // ########################################################################
+    // Terrain Prefetcher Update Methods:
+    // ########################################################################
+
+    public void request(int chunkX, int chunkY) {
+
+        // Queue generation of the given chunk on the worker thread, unless it is already on its way.
+        long chunkKey = Map.packCoords(chunkX, chunkY);
+        if (!this.pendingChunks.add(chunkKey)) return;
+
+        this.getWorker().execute(() -> {
+            byte[] chunk = new byte[chunkSize * chunkSize];
+            this.map.generateTerrainRegion(chunkX * chunkSize, chunkY * chunkSize, chunkSize, chunkSize, this.noiseValues, chunk);
+            this.readyChunks.put(chunkKey, chunk);
+        });
+
+    }
+
+    public void drainReady(MapTerrainCache terrainCache) {
+
+        // Hand over all chunks the worker has finished to the terrain cache (on the draw thread).
+        if (this.readyChunks.isEmpty()) return;
+
+        for (Long chunkKey : this.readyChunks.keySet()) {
+            terrainCache.insertChunk(chunkKey, this.readyChunks.remove(chunkKey));
+            this.pendingChunks.remove(chunkKey);
+        }
+
+    }
+
+    public boolean isPending(long chunkKey) {
+        return this.pendingChunks.contains(chunkKey);
+    }
+
+    private ThreadPoolExecutor getWorker() {
+
+        // Daemon worker thread, so it never keeps the game running, and it is allowed to die off while idle.
+        if (this.worker == null) {
+            this.worker = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "terrain-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.worker.allowCoreThreadTimeOut(true);
+        }
+
+        return this.worker;
+
+    }
+
+
+    // ########################################################################
+    // Terrain Prefetcher Getters:
+    // ########################################################################
+
+    public int getNumPending() {
+        return this.pendingChunks.size();
+    }
+
+
+}
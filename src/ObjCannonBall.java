@@ -1,7 +1,5 @@
 import processing.core.PVector;
 
-import java.util.ArrayList;
-
 public class ObjCannonBall extends ObjGameGeneric {
 
 
@@ -12,6 +10,9 @@ public class ObjCannonBall extends ObjGameGeneric {
     private final int damage; // Damage this cannonball will deal.
     private final Character firedBy; // Who fired this cannonball.
 
+    private boolean hitCharacter; // Whether this cannonball hit a character during the current collision resolution.
+    private final MapCollisionLattice.NearbyObjectAction hitAction = this::hitIfColliding; // Created once, not per query.
+
 
     // ########################################################################
     // Cannon Ball Constructor:
@@ -64,33 +65,33 @@ public class ObjCannonBall extends ObjGameGeneric {
 
     private boolean collisionResolution() {
 
-        // Get set of nearby objects to this cannonball using the bin-lattice spatial sub-division.
-        ArrayList<? extends ObjGameGeneric> nearbyObjects = gameState.getCollisionLattice().nearbyObjects(this);
+        // Visit nearby characters to this cannonball in place, using the bin-lattice spatial sub-division.
+        this.hitCharacter = false; // Only need to remove if there is a collision.
+        gameState.getCollisionLattice().forEachNear(this, GameConfig.LATTICE_CHARACTER_MASK, this.hitAction);
 
-        boolean removeThisCannonBall = false; // Only need to remove if there is a collision.
+        return this.hitCharacter;
 
-        for (ObjGameGeneric currNearbyObj : nearbyObjects) { // For all nearby objects...
-            if (currNearbyObj instanceof Character) { // ...If the nearby object is a character...
+    }
 
-                if (currNearbyObj == firedBy) continue; // Do not need to consider collisions with the character that fired the cannonball.
+    private void hitIfColliding(ObjGameGeneric currNearbyObj) {
 
-                // For the fort mini-boss, don't allow friendly fire!
-                if (firedBy instanceof CharacterFortBoss && currNearbyObj instanceof CharacterFort) continue;
-                if (firedBy instanceof CharacterFort && currNearbyObj instanceof CharacterFortBoss) continue;
+        // Only characters are visited (see the kinds queried), so each nearby object is a character that can be hit.
+        Character currNearbyChar = (Character) currNearbyObj;
 
-                if (this.collide(currNearbyObj)) { // ...And this cannonball is colliding with the character...
+        if (currNearbyChar == firedBy) return; // Do not need to consider collisions with the character that fired the cannonball.
 
-                    ((Character) currNearbyObj).subHealth(this.getDamage()); // ...Then damage the character.
-                    removeThisCannonBall = true; // Collided so remove cannonball.
+        // For the fort mini-boss, don't allow friendly fire!
+        if (firedBy instanceof CharacterFortBoss && currNearbyChar instanceof CharacterFort) return;
+        if (firedBy instanceof CharacterFort && currNearbyChar instanceof CharacterFortBoss) return;
 
-                    Game.gameSound.soundImpactThud(true); // Play impact indicator sound as feedback.
+        if (this.collide(currNearbyChar)) { // If this cannonball is colliding with the character...
 
-                }
+            currNearbyChar.subHealth(this.getDamage()); // ...Then damage the character.
+            this.hitCharacter = true; // Collided so remove cannonball.
 
-            }
-        }
+            Game.gameSound.soundImpactThud(true); // Play impact indicator sound as feedback.
 
-        return removeThisCannonBall;
+        }
 
     }
 
@@ -26,6 +26,8 @@ class ObjGameGeneric {
     // Object De-Spawning.
     private boolean willDeSpawn; // Boolean determining whether this object will de-spawn after so many seconds off the screen.
     private int deSpawnTimer; // Timer counting how long this object has been off the screen to determine whether to de-spawn.
+    private long spawnTile = MapSpawnRegistry.NO_TILE; // Packed world tile this object was spawned from by the map (if any).
+    private int latticeHandle = -1; // Handle of this object in the collision lattice (-1 if not in the lattice).
 
 
     // ########################################################################
@@ -76,11 +78,6 @@ class ObjGameGeneric {
 
     }
 
-    public void updatePan(float camXPan, float camYPan) {
-        this.setPosX(this.getPosX() - camXPan);
-        this.setPosY(this.getPosY() - camYPan);
-    }
-
     public boolean updateDeSpawn() {
 
         // Update the de-spawn timer if this object is out of the map.
@@ -158,18 +155,13 @@ class ObjGameGeneric {
     // ########################################################################
 
     public boolean isOnScreen() {
-
-        return !(this.getPosX() < 0 || this.getPosX() > GameConfig.CANVAS_WIDTH ||
-                 this.getPosY() < 0 || this.getPosY() > GameConfig.CANVAS_HEIGHT);
-
+        return gameState.isOnScreen(this.getPosX(), this.getPosY()); // Positions are in world co-ordinates.
     }
 
     public boolean isInMap() {
 
-        int[] mapGridCoord = gameState.getMap().getMapGridCoordAtPos((int) this.getPosX(), (int) this.getPosY());
-
-        return  !(mapGridCoord[0] < 0 || mapGridCoord[0] >= gameState.getMap().getMapGridWidth() ||
-                  mapGridCoord[1] < 0 || mapGridCoord[1] >= gameState.getMap().getMapGridHeight());
+        Map map = gameState.getMap();
+        return map.isInMapGrid(map.tileColFloor(this.getPosX()), map.tileRowFloor(this.getPosY()));
 
     }
 
@@ -257,6 +249,14 @@ class ObjGameGeneric {
         return willDeSpawn;
     }
 
+    public long getSpawnTile() {
+        return spawnTile;
+    }
+
+    public int getLatticeHandle() {
+        return latticeHandle;
+    }
+
 
     // ########################################################################
     // Generic Game Object Setters:
@@ -340,5 +340,13 @@ class ObjGameGeneric {
         this.willDeSpawn = willDeSpawn;
     }
 
+    public void setSpawnTile(long spawnTile) {
+        this.spawnTile = spawnTile;
+    }
+
+    public void setLatticeHandle(int latticeHandle) {
+        this.latticeHandle = latticeHandle;
+    }
+
 
 }
@@ -8,6 +8,7 @@ public class ObjLoot extends ObjGameGeneric {
     // ########################################################################
 
     private int goldAward;
+    private boolean collected; // Whether the player has collected this loot (as opposed to it de-spawning).
 
 
     // ########################################################################
@@ -51,6 +52,7 @@ public class ObjLoot extends ObjGameGeneric {
 
             Game.gameSound.soundMoneyCollect(true); // Play sound of the gold being collected.
 
+            this.collected = true;
             return true;
         }
 
@@ -75,4 +77,13 @@ public class ObjLoot extends ObjGameGeneric {
     }
 
 
+    // ########################################################################
+    // Loot Getters:
+    // ########################################################################
+
+    public boolean isCollected() {
+        return collected;
+    }
+
+
 }